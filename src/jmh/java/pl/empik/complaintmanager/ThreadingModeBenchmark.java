@@ -0,0 +1,96 @@
+package pl.empik.complaintmanager;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(100)
+@Fork(1)
+public class ThreadingModeBenchmark {
+
+    private static final int TOMCAT_THREADS = 20;
+    private static final int GEOLOCATION_DELAY_MILLIS = 200;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private final AtomicLong requests = new AtomicLong();
+    private WireMockServer wireMockServer;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI uri;
+
+    @Setup
+    public void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort().disableRequestJournal());
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlPathMatching("/[^/]+/country"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("US")
+                        .withFixedDelay(GEOLOCATION_DELAY_MILLIS)));
+        context = new SpringApplicationBuilder(ComplaintManagerApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--wiremock.server.port=" + wireMockServer.port());
+        client = HttpClient.newHttpClient();
+        uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/complaints");
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        context.close();
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    public int addComplaint() throws Exception {
+        long request = requests.incrementAndGet();
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .header("ip", "10." + (request >> 16 & 255) + "." + (request >> 8 & 255) + "." + (request & 255))
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"productId\": " + request + ", \"content\": \"Load\", \"complainant\": \"Load " + request + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+}
@@ -0,0 +1,86 @@
+package pl.empik.complaintmanager.config;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class GeoLocationTransportBenchmark {
+
+    @Param({"JDK", "APACHE"})
+    private GeoLocationConfig.TransportType transport;
+
+    @Param({"true", "false"})
+    private boolean reuseConnections;
+
+    private WireMockServer server;
+    private ClientHttpRequestFactory requestFactory;
+    private RestClient restClient;
+    private String path;
+
+    @Setup
+    public void setUp() {
+        server = new WireMockServer(wireMockConfig().dynamicPort().disableRequestJournal());
+        server.start();
+        server.stubFor(get(urlPathMatching("/json/.*"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"countryCode\":\"PL\"}")));
+        server.stubFor(get(urlPathMatching("/close/.*"))
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Connection", "close")
+                        .withBody("{\"countryCode\":\"PL\"}")));
+
+        GeoLocationConfig config = new GeoLocationConfig();
+        config.setUrl(server.baseUrl());
+        config.getTransport().setType(transport);
+        config.getTransport().setHttp2(false);
+        RestClientConfiguration configuration = new RestClientConfiguration();
+        requestFactory = configuration.geoLocationRequestFactory(config, new MockEnvironment(), new SimpleMeterRegistry());
+        restClient = configuration.geoLocationClient(config, requestFactory, ObservationRegistry.NOOP);
+        path = reuseConnections ? "/json/{ip}" : "/close/{ip}";
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (requestFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+        server.stop();
+    }
+
+    @Benchmark
+    public String lookup() {
+        return restClient.get().uri(path, "83.0.0.1").retrieve().body(String.class);
+    }
+
+}
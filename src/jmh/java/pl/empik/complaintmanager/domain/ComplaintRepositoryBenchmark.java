@@ -0,0 +1,150 @@
+package pl.empik.complaintmanager.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.empik.complaintmanager.ComplaintManagerApplication;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ComplaintRepositoryBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final int COMPLAINANTS_PER_PRODUCT = 1_000;
+    private static final String CONTENT = "Product arrived damaged, packaging was torn and the manual is missing. ".repeat(10);
+
+    private ConfigurableApplicationContext context;
+    private ComplaintRepository complaintRepository;
+    private ComplaintSearchRepository complaintSearchRepository;
+    private long minId;
+    private long maxId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ComplaintManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--wiremock.server.port=0");
+        complaintRepository = context.getBean(ComplaintRepository.class);
+        complaintSearchRepository = context.getBean(ComplaintSearchRepository.class);
+
+        ComplaintJdbcRepository jdbcRepository = context.getBean(ComplaintJdbcRepository.class);
+        ComplaintPartitionRepository partitionRepository = context.getBean(ComplaintPartitionRepository.class);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int month = 0; month < 3; month++) {
+            partitionRepository.createPartition(start.toLocalDate().plusMonths(month));
+        }
+        for (int product = 0; product < PRODUCTS; product++) {
+            List<Complaint> complaints = new ArrayList<>(COMPLAINANTS_PER_PRODUCT);
+            for (int i = 0; i < COMPLAINANTS_PER_PRODUCT; i++) {
+                Complaint complaint = new Complaint();
+                complaint.setProductId((long) product);
+                complaint.setContent(CONTENT);
+                complaint.setCreationDate(start.plusMinutes((long) product * COMPLAINANTS_PER_PRODUCT + i));
+                complaint.setComplainant("complainant" + i + "@example.com");
+                complaint.setCountry("PL");
+                complaint.setClaimCounter(1);
+                complaints.add(complaint);
+            }
+            jdbcRepository.saveBatch(complaints, Map.of(), Map.of());
+        }
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("ANALYZE complaints");
+        minId = jdbcTemplate.queryForObject("SELECT min(id) FROM complaints", Long.class);
+        maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM complaints", Long.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Complaint> findById() {
+        return complaintRepository.findById(ThreadLocalRandom.current().nextLong(minId, maxId + 1));
+    }
+
+    @Benchmark
+    public Page<Complaint> findByProductIdEntities() {
+        return complaintRepository.findByProductId(randomProductId(),
+                PageRequest.of(0, 20, Sort.by("creationDate", "id")));
+    }
+
+    @Benchmark
+    public Page<ComplaintView> findByProductIdViews() {
+        return complaintRepository.findPage(new ComplaintFilter(randomProductId(), null, null, null), true,
+                PageRequest.of(0, 20, Sort.by("creationDate", "id")));
+    }
+
+    @Benchmark
+    public Page<ComplaintView> findByProductIdViewsWithoutContent() {
+        return complaintRepository.findPage(new ComplaintFilter(randomProductId(), null, null, null), false,
+                PageRequest.of(0, 20, Sort.by("creationDate", "id")));
+    }
+
+    @Benchmark
+    public Page<ComplaintView> findByProductIdInMonth() {
+        return complaintRepository.findPage(new ComplaintFilter(randomProductId(), null,
+                        LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 3, 1, 0, 0)), true,
+                PageRequest.of(0, 20, Sort.by("creationDate", "id")));
+    }
+
+    @Benchmark
+    public Page<ComplaintView> findByComplainantContaining() {
+        return complaintRepository.findPage(new ComplaintFilter(null,
+                        "complainant" + ThreadLocalRandom.current().nextInt(COMPLAINANTS_PER_PRODUCT) + "@", null, null),
+                true,
+                PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<ComplaintSearchRepository.ComplaintMatch> searchContentInProduct() {
+        return complaintSearchRepository.search("damaged manual",
+                new ComplaintFilter(randomProductId(), null, null, null), null, null, 21, true);
+    }
+
+    @Benchmark
+    public List<ComplaintView> findAfter() {
+        return complaintRepository.findAfter(new ComplaintFilter(randomProductId(), null, null, null),
+                LocalDateTime.of(2024, 1, 1, 0, 0), 0L, 21, true);
+    }
+
+    @Benchmark
+    public Optional<Complaint> incrementClaimCounter() {
+        return complaintRepository.incrementClaimCounter(randomProductId(),
+                "complainant" + ThreadLocalRandom.current().nextInt(COMPLAINANTS_PER_PRODUCT) + "@example.com");
+    }
+
+    private static long randomProductId() {
+        return ThreadLocalRandom.current().nextInt(PRODUCTS);
+    }
+
+}
@@ -0,0 +1,136 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import pl.empik.complaintmanager.config.ComplaintClaimsConfig;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.domain.ComplaintView;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddComplaintBenchmark {
+
+    private static final ComplaintShards SHARDS = new ComplaintShards(new ShardingConfig(), null);
+
+    private ComplaintService newComplaintService;
+    private ComplaintService repeatedComplaintService;
+    private ComplaintService bufferedComplaintService;
+    private GeoLocationService geoLocationService;
+    private Complaint repeatedComplaint;
+    private ComplaintRequestDto request;
+
+    @Setup
+    public void setUp() {
+        request = new ComplaintRequestDto();
+        request.setProductId(1L);
+        request.setContent("Product arrived damaged");
+        request.setComplainant("john.doe@example.com");
+
+        Complaint complaint = new Complaint();
+        complaint.setId(1L);
+        complaint.setProductId(1L);
+        complaint.setContent("Product arrived damaged");
+        complaint.setCreationDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        complaint.setComplainant("john.doe@example.com");
+        complaint.setCountry("PL");
+        complaint.setClaimCounter(1);
+
+        GeoLocationService geoLocationService = new GeoLocationService(null, null, null, null, null, null, null) {
+            @Override
+            public String getCountryFromIp(String ipAddress) {
+                return "PL";
+            }
+        };
+        repeatedComplaint = new Complaint();
+        repeatedComplaint.setId(1L);
+        repeatedComplaint.setProductId(1L);
+        repeatedComplaint.setContent("Product arrived damaged");
+        repeatedComplaint.setCreationDate(LocalDateTime.of(2024, 1, 1, 12, 0));
+        repeatedComplaint.setComplainant("john.doe@example.com");
+        repeatedComplaint.setCountry("PL");
+        repeatedComplaint.setClaimCounter(2);
+
+        newComplaintService = new ComplaintService(stubRepository(Optional.empty(), complaint), geoLocationService,
+                new GeoLocationConfig(), new SimpleMeterRegistry(), claimAccumulator(false), SHARDS, cacheManager());
+        repeatedComplaintService = new ComplaintService(stubRepository(Optional.of(complaint), complaint), geoLocationService,
+                new GeoLocationConfig(), new SimpleMeterRegistry(), claimAccumulator(false), SHARDS, cacheManager());
+        this.geoLocationService = geoLocationService;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        ClaimAccumulator accumulator = claimAccumulator(true);
+        accumulator.register(repeatedComplaint);
+        bufferedComplaintService = new ComplaintService(stubRepository(Optional.of(repeatedComplaint), repeatedComplaint),
+                geoLocationService, new GeoLocationConfig(), new SimpleMeterRegistry(), accumulator, SHARDS, cacheManager());
+    }
+
+    @Benchmark
+    public ComplaintResponseDto addNewComplaint() {
+        return newComplaintService.addComplaint(request, "192.168.1.1");
+    }
+
+    @Benchmark
+    public ComplaintResponseDto addRepeatedComplaint() {
+        return repeatedComplaintService.addComplaint(request, "192.168.1.1");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ComplaintResponseDto addRepeatedComplaintWriteBehind() {
+        return bufferedComplaintService.addComplaint(request, "192.168.1.1");
+    }
+
+    private static ClaimAccumulator claimAccumulator(boolean writeBehind) {
+        ComplaintClaimsConfig config = new ComplaintClaimsConfig();
+        config.setWriteBehind(writeBehind);
+        return new ClaimAccumulator(null, config, null, SHARDS, new SimpleMeterRegistry());
+    }
+
+    private static CacheManager cacheManager() {
+        return new ConcurrentMapCacheManager(ComplaintService.COMPLAINTS_CACHE);
+    }
+
+    private static ComplaintRepository stubRepository(Optional<Complaint> existing, Complaint inserted) {
+        Optional<ComplaintView> view = Optional.of(new ComplaintView(inserted.getId(), inserted.getProductId(),
+                inserted.getContent(), inserted.getCreationDate(), inserted.getComplainant(), inserted.getCountry(),
+                inserted.getClaimCounter(), inserted.getVersion()));
+        return (ComplaintRepository) Proxy.newProxyInstance(
+                ComplaintRepository.class.getClassLoader(),
+                new Class<?>[]{ComplaintRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "incrementClaimCounter" -> existing;
+                    case "insertOrIncrementClaimCounter" -> inserted;
+                    case "findViewById" -> view;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+}
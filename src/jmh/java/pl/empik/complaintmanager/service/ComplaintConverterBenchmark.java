@@ -0,0 +1,78 @@
+package pl.empik.complaintmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComplaintConverterBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final ComplaintConverter converter = new ComplaintConverter();
+    private ObjectMapper objectMapper;
+    private Page<Complaint> complaints;
+    private Page<ComplaintResponseDto> responsePage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Complaint> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Complaint complaint = new Complaint();
+            complaint.setId((long) i + 1);
+            complaint.setProductId(1000L + i % 10);
+            complaint.setContent("Product arrived damaged, packaging was torn and the manual is missing " + i);
+            complaint.setCreationDate(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i));
+            complaint.setComplainant("complainant" + i + "@example.com");
+            complaint.setCountry("PL");
+            complaint.setClaimCounter(1 + i % 3);
+            content.add(complaint);
+        }
+        complaints = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+        responsePage = complaints.map(converter::toResponseDto);
+    }
+
+    @Benchmark
+    public Page<ComplaintResponseDto> convertPage() {
+        return complaints.map(converter::toResponseDto);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responsePage);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(complaints.map(converter::toResponseDto));
+    }
+
+}
@@ -0,0 +1,73 @@
+package pl.empik.complaintmanager.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class IpRangeIndexBenchmark {
+
+    private static final int RANGES = 500_000;
+    private static final int ADDRESSES = 4096;
+    private static final String[] COUNTRIES = {"PL", "DE", "FR", "US", "GB", "CZ", "SK", "UA"};
+
+    private IpRangeIndex index;
+    private String[] ipv4Addresses;
+    private String[] ipv6Addresses;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < RANGES; i++) {
+            String country = COUNTRIES[i % COUNTRIES.length];
+            long start = (long) i << 13;
+            csv.append(toIpv4(start)).append(',').append(toIpv4(start + 4095)).append(',').append(country).append('\n');
+            if (i < 0xFFFF) {
+                csv.append(String.format("2001:%x::/32,%s%n", i, country));
+            }
+        }
+        index = IpRangeIndex.load(new BufferedReader(new StringReader(csv.toString())));
+
+        SplittableRandom random = new SplittableRandom(42);
+        ipv4Addresses = new String[ADDRESSES];
+        ipv6Addresses = new String[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; i++) {
+            ipv4Addresses[i] = toIpv4(random.nextLong(1L << 32));
+            ipv6Addresses[i] = String.format("2001:%x:%x::%x", random.nextInt(0xFFFF), random.nextInt(0xFFFF), random.nextInt(0xFFFF));
+        }
+    }
+
+    @Benchmark
+    public String findIpv4() {
+        return index.find(ipv4Addresses[next++ & (ADDRESSES - 1)]);
+    }
+
+    @Benchmark
+    public String findIpv6() {
+        return index.find(ipv6Addresses[next++ & (ADDRESSES - 1)]);
+    }
+
+    private static String toIpv4(long address) {
+        return (address >>> 24 & 0xFF) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "." + (address & 0xFF);
+    }
+
+}
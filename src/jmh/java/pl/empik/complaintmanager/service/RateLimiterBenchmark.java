@@ -0,0 +1,80 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.empik.complaintmanager.config.RateLimitConfig;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 8192;
+
+    private RateLimiter rateLimiter;
+    private String[] ipAddresses;
+    private String[] complainants;
+
+    @Setup
+    public void setUp() {
+        RateLimitConfig.Limit limit = new RateLimitConfig.Limit();
+        limit.setCapacity(1_000_000_000L);
+        limit.setPeriod(Duration.ofSeconds(1));
+        RateLimitConfig.Endpoint add = new RateLimitConfig.Endpoint();
+        add.setIp(limit);
+        add.setComplainant(limit);
+        RateLimitConfig config = new RateLimitConfig();
+        config.getEndpoints().put("add", add);
+        rateLimiter = new RateLimiter(config, new SimpleMeterRegistry());
+
+        SplittableRandom random = new SplittableRandom(42);
+        ipAddresses = new String[KEYS];
+        complainants = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            ipAddresses[i] = "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+            complainants[i] = "complainant-" + i + "@example.com";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next = new SplittableRandom().nextInt(KEYS);
+
+    }
+
+    @Benchmark
+    public void acquireSameKey() {
+        rateLimiter.acquire("add", "10.0.0.1", "john.doe@example.com");
+    }
+
+    @Benchmark
+    public void acquireDistinctKeys(Cursor cursor) {
+        int key = cursor.next++ & (KEYS - 1);
+        rateLimiter.acquire("add", ipAddresses[key], complainants[key]);
+    }
+
+    @Benchmark
+    public void acquireUnlimitedEndpoint() {
+        rateLimiter.acquire("update", "10.0.0.1", "john.doe@example.com");
+    }
+
+}
@@ -0,0 +1,83 @@
+package pl.empik.complaintmanager.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AdaptiveConcurrencyLimit {
+
+    private final ConcurrencyLimitConfig config;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+    private long samples;
+
+    AdaptiveConcurrencyLimit(ConcurrencyLimitConfig config) {
+        this.config = config;
+        this.estimatedLimit = config.getInitialLimit();
+        this.limit = config.getInitialLimit();
+    }
+
+    int tryAcquire(boolean highPriority) {
+        int allowed = highPriority ? limit : Math.max(1, (int) (limit * config.getLowPriorityShare()));
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return current + 1;
+    }
+
+    void release() {
+        inflight.decrementAndGet();
+    }
+
+    void release(long rttNanos, int inflightAtStart) {
+        release();
+        if (rttNanos > 0) {
+            update(rttNanos, inflightAtStart);
+        }
+    }
+
+    void drop() {
+        release();
+        backOff();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void backOff() {
+        estimatedLimit = Math.max(config.getMinLimit(), estimatedLimit * config.getDropBackoff());
+        limit = (int) estimatedLimit;
+    }
+
+    private synchronized void update(long rtt, int inflightAtStart) {
+        samples++;
+        if (samples == 1) {
+            longRtt = rtt;
+        } else {
+            double factor = 2.0 / (Math.min(samples, config.getLongWindow()) + 1);
+            longRtt = longRtt * (1 - factor) + rtt * factor;
+        }
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (inflightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, config.getTolerance() * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - config.getSmoothing()) + newLimit * config.getSmoothing();
+        estimatedLimit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+}
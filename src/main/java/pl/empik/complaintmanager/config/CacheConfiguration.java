@@ -0,0 +1,9 @@
+package pl.empik.complaintmanager.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+class CacheConfiguration {
+}
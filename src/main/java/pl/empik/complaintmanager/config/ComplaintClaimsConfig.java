@@ -0,0 +1,18 @@
+package pl.empik.complaintmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@Data
+@ConfigurationProperties(prefix = "complaints.claims")
+public class ComplaintClaimsConfig {
+
+    private boolean writeBehind = false;
+    private Duration flushInterval = Duration.ofMillis(200);
+    private int maxKeys = 10_000;
+
+}
@@ -0,0 +1,19 @@
+package pl.empik.complaintmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@Data
+@ConfigurationProperties(prefix = "complaints.partitions")
+public class ComplaintPartitionConfig {
+
+    private int futureMonths = 3;
+    private int retentionMonths = 0;
+    private String archiveDirectory;
+    private Duration maintenanceInterval = Duration.ofHours(1);
+
+}
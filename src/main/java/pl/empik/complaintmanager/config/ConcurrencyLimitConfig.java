@@ -0,0 +1,22 @@
+package pl.empik.complaintmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Data
+@ConfigurationProperties(prefix = "complaints.concurrency-limit")
+public class ConcurrencyLimitConfig {
+
+    private boolean enabled = true;
+    private int initialLimit = 50;
+    private int minLimit = 10;
+    private int maxLimit = 500;
+    private double tolerance = 1.5;
+    private double smoothing = 0.2;
+    private int longWindow = 600;
+    private double lowPriorityShare = 0.75;
+    private double dropBackoff = 0.9;
+
+}
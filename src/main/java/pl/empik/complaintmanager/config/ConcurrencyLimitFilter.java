@@ -0,0 +1,134 @@
+package pl.empik.complaintmanager.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+@Component
+class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_GAUGE = "complaints.concurrency.limit";
+    static final String INFLIGHT_GAUGE = "complaints.concurrency.inflight";
+    static final String REJECTED_COUNTER = "complaints.concurrency.rejected";
+
+    private static final Pattern CHEAP_READS = Pattern.compile("/api/complaints/(\\d+|stats)");
+
+    private final ConcurrencyLimitConfig config;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimit limit;
+
+    ConcurrencyLimitFilter(ConcurrencyLimitConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.limit = new AdaptiveConcurrencyLimit(config);
+        Gauge.builder(LIMIT_GAUGE, limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive limit of concurrent API requests")
+                .register(meterRegistry);
+        Gauge.builder(INFLIGHT_GAUGE, limit, AdaptiveConcurrencyLimit::getInflight)
+                .description("API requests currently being handled")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean highPriority = HttpMethod.GET.matches(request.getMethod())
+                && CHEAP_READS.matcher(request.getRequestURI()).matches();
+        int inflight = limit.tryAcquire(highPriority);
+        if (inflight < 0) {
+            meterRegistry.counter(REJECTED_COUNTER, "priority", highPriority ? "high" : "low").increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Server is overloaded, please retry later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener());
+                released = true;
+            } else if (!isServerError(response)) {
+                limit.release(System.nanoTime() - start, inflight);
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limit.drop();
+            }
+        }
+    }
+
+    private static boolean isServerError(HttpServletResponse response) {
+        return response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    private class ReleasingAsyncListener implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (event.getSuppliedResponse() instanceof HttpServletResponse response && isServerError(response)) {
+                drop();
+            } else {
+                release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            drop();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            drop();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+
+        private void drop() {
+            if (released.compareAndSet(false, true)) {
+                limit.drop();
+            }
+        }
+
+    }
+
+}
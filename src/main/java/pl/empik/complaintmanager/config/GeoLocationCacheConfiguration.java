@@ -0,0 +1,46 @@
+package pl.empik.complaintmanager.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+
+@Configuration
+class GeoLocationCacheConfiguration {
+
+    @Bean
+    AsyncCache<String, Optional<String>> geoLocationCache(GeoLocationConfig config, MeterRegistry meterRegistry) {
+        AsyncCache<String, Optional<String>> cache = Caffeine.newBuilder()
+                .maximumSize(config.getCache().getMaximumSize())
+                .expireAfter(new LookupExpiry(config.getCache()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "geoLocation", "cache.manager", "geoLocation");
+        return cache;
+    }
+
+    private record LookupExpiry(GeoLocationConfig.LookupCache config) implements Expiry<String, Optional<String>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<String> country, long currentTime) {
+            return (country.isPresent() ? config.getTtl() : config.getNegativeTtl()).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<String> country, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, country, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<String> country, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -4,13 +4,86 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @Data
 @ConfigurationProperties(prefix = "geolocation")
 public class GeoLocationConfig {
 
     private String url;
-    private int connectionTimeout;
-    private int readTimeout;
+    private int connectionTimeout = 1000;
+    private int readTimeout = 2000;
+    private LookupCache cache = new LookupCache();
+    private Resilience resilience = new Resilience();
+    private Enrichment enrichment = new Enrichment();
+    private Database database = new Database();
+    private Transport transport = new Transport();
+
+    @Data
+    public static class LookupCache {
+
+        private long maximumSize = 100_000;
+        private Duration ttl = Duration.ofHours(24);
+        private Duration negativeTtl = Duration.ofMinutes(1);
+        private int ipv4PrefixLength = 24;
+        private int ipv6PrefixLength = 48;
+
+    }
+
+    @Data
+    public static class Resilience {
+
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 50;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 3;
+        private int maxConcurrentCalls = 20;
+        private Duration maxWaitDuration = Duration.ZERO;
+
+    }
+
+    @Data
+    public static class Enrichment {
+
+        private boolean async = false;
+        private Duration interval = Duration.ofSeconds(5);
+        private int batchSize = 100;
+        private int workers = 4;
+        private int rateLimit = 10;
+        private Duration permitTimeout = Duration.ofSeconds(1);
+        private Duration lease = Duration.ofMinutes(5);
+        private Duration initialBackoff = Duration.ofSeconds(30);
+        private Duration maxBackoff = Duration.ofHours(1);
+        private int maxAttempts = 10;
+
+    }
+
+    @Data
+    public static class Database {
+
+        private String path;
+        private Duration reloadInterval = Duration.ofMinutes(1);
+
+    }
+
+    @Data
+    public static class Transport {
+
+        private TransportType type = TransportType.APACHE;
+        private boolean http2 = true;
+        private int maxConnections = 50;
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+    }
+
+    public enum TransportType {
+        JDK,
+        APACHE
+    }
 
 }
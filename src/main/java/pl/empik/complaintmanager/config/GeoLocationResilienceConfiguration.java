@@ -0,0 +1,52 @@
+package pl.empik.complaintmanager.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+class GeoLocationResilienceConfiguration {
+
+    private static final String GEOLOCATION = "geoLocation";
+
+    @Bean
+    CircuitBreaker geoLocationCircuitBreaker(GeoLocationConfig config) {
+        GeoLocationConfig.Resilience resilience = config.getResilience();
+        return CircuitBreaker.of(GEOLOCATION, CircuitBreakerConfig.custom()
+                .failureRateThreshold(resilience.getFailureRateThreshold())
+                .slowCallRateThreshold(resilience.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(resilience.getSlowCallDurationThreshold())
+                .slidingWindowSize(resilience.getSlidingWindowSize())
+                .minimumNumberOfCalls(resilience.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(resilience.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(resilience.getPermittedCallsInHalfOpenState())
+                .build());
+    }
+
+    @Bean
+    Bulkhead geoLocationBulkhead(GeoLocationConfig config) {
+        GeoLocationConfig.Resilience resilience = config.getResilience();
+        return Bulkhead.of(GEOLOCATION, BulkheadConfig.custom()
+                .maxConcurrentCalls(resilience.getMaxConcurrentCalls())
+                .maxWaitDuration(resilience.getMaxWaitDuration())
+                .build());
+    }
+
+    @Bean
+    RateLimiter geoLocationEnrichmentRateLimiter(GeoLocationConfig config) {
+        GeoLocationConfig.Enrichment enrichment = config.getEnrichment();
+        return RateLimiter.of(GEOLOCATION, RateLimiterConfig.custom()
+                .limitForPeriod(enrichment.getRateLimit())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(enrichment.getPermitTimeout())
+                .build());
+    }
+
+}
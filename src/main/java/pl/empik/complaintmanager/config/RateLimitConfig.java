@@ -0,0 +1,46 @@
+package pl.empik.complaintmanager.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@Data
+@Validated
+@ConfigurationProperties(prefix = "complaints.rate-limit")
+public class RateLimitConfig {
+
+    private boolean enabled = true;
+    private long maxKeys = 100_000;
+    @Valid
+    private Map<String, Endpoint> endpoints = new HashMap<>();
+
+    @Data
+    public static class Endpoint {
+
+        @Valid
+        private Limit ip;
+        @Valid
+        private Limit complainant;
+
+    }
+
+    @Data
+    public static class Limit {
+
+        @Positive
+        private long capacity;
+        @NotNull
+        private Duration period = Duration.ofMinutes(1);
+
+    }
+
+}
@@ -0,0 +1,46 @@
+package pl.empik.complaintmanager.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String RECENT_WRITE_COOKIE = "complaints-recent-write";
+
+    private final int windowSeconds;
+
+    ReadYourWritesFilter(Duration window) {
+        this.windowSeconds = (int) Math.max(1, (window.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            Cookie cookie = new Cookie(RECENT_WRITE_COOKIE, "1");
+            cookie.setPath("/");
+            cookie.setMaxAge(windowSeconds);
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ReplicaRoutingDataSource.requirePrimary(WebUtils.getCookie(request, RECENT_WRITE_COOKIE) != null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.requirePrimary(false);
+        }
+    }
+
+}
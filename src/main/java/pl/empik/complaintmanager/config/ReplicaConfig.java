@@ -0,0 +1,29 @@
+package pl.empik.complaintmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@Data
+@ConfigurationProperties(prefix = "complaints.replicas")
+public class ReplicaConfig {
+
+    private boolean enabled = false;
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private Selection selection = Selection.ROUND_ROBIN;
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+}
@@ -0,0 +1,81 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "complaints.replicas", name = "enabled", havingValue = "true")
+class ReplicaRoutingConfiguration {
+
+    @Bean
+    static BeanPostProcessor replicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaConfig> config,
+                                                                   ObjectProvider<ComplaintClaimsConfig> claimsConfig,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaRoutingPostProcessor(config, claimsConfig, meterRegistry);
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(ReplicaConfig config) {
+        return new ReadYourWritesFilter(config.getReadYourWritesWindow());
+    }
+
+    private record ReplicaRoutingPostProcessor(ObjectProvider<ReplicaConfig> config,
+                                               ObjectProvider<ComplaintClaimsConfig> claimsConfig,
+                                               ObjectProvider<MeterRegistry> meterRegistry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource && "dataSource".equals(beanName)) {
+                if (claimsConfig.getObject().isWriteBehind()) {
+                    throw new IllegalStateException("Read replicas cannot be combined with write-behind claim counters");
+                }
+                ReplicaConfig replicaConfig = config.getObject();
+                return new ReplicaRoutingDataSource(dataSource, replicaPools(dataSource, replicaConfig),
+                        replicaConfig.getSelection());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        private List<HikariDataSource> replicaPools(HikariDataSource primary, ReplicaConfig replicaConfig) {
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (String url : replicaConfig.getUrls()) {
+                HikariConfig replica = new HikariConfig();
+                primary.copyStateTo(replica);
+                replica.setPoolName("replica-" + (pools.size() + 1));
+                replica.setJdbcUrl(url);
+                replica.setMaximumPoolSize(replicaConfig.getMaximumPoolSize());
+                replica.setMinimumIdle(Math.min(replica.getMinimumIdle(), replicaConfig.getMaximumPoolSize()));
+                replica.setReadOnly(true);
+                replica.setInitializationFailTimeout(-1);
+                if (StringUtils.hasText(replicaConfig.getUsername())) {
+                    replica.setUsername(replicaConfig.getUsername());
+                    replica.setPassword(replicaConfig.getPassword());
+                }
+                replica.setMetricRegistry(null);
+                replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry.getObject()));
+                pools.add(new HikariDataSource(replica));
+            }
+            return pools;
+        }
+
+    }
+
+}
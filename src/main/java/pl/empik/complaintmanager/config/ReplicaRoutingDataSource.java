@@ -0,0 +1,114 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@Slf4j
+class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final HikariDataSource primaryPool;
+    private final List<HikariDataSource> replicaPools;
+    private final ReplicaConfig.Selection selection;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile DataSource primary;
+    private volatile List<DataSource> replicas;
+
+    ReplicaRoutingDataSource(HikariDataSource primaryPool, List<HikariDataSource> replicaPools,
+                             ReplicaConfig.Selection selection) {
+        super(primaryPool);
+        this.primaryPool = primaryPool;
+        this.replicaPools = List.copyOf(replicaPools);
+        this.selection = selection;
+        this.primary = primaryPool;
+        this.replicas = List.copyOf(replicaPools);
+        setReadOnlyDataSource(new ReplicaSelectingDataSource());
+    }
+
+    static void requirePrimary(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    void limitConnections(Function<HikariDataSource, DataSource> limiter) {
+        primary = limiter.apply(primaryPool);
+        replicas = replicaPools.stream().map(limiter).toList();
+        setTargetDataSource(primary);
+    }
+
+    DataSource selectReplica() {
+        List<DataSource> candidates = replicas;
+        if (candidates.isEmpty() || Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            return primary;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        if (selection == ReplicaConfig.Selection.ROUND_ROBIN) {
+            return candidates.get(start);
+        }
+        int selected = start;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < candidates.size(); i++) {
+            int candidate = (start + i) % candidates.size();
+            HikariPoolMXBean pool = replicaPools.get(candidate).getHikariPoolMXBean();
+            int active = pool != null ? pool.getActiveConnections() : 0;
+            if (active < fewest) {
+                fewest = active;
+                selected = candidate;
+            }
+        }
+        return candidates.get(selected);
+    }
+
+    @Override
+    public void close() {
+        replicaPools.forEach(HikariDataSource::close);
+        primaryPool.close();
+    }
+
+    private class ReplicaSelectingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            DataSource replica = selectReplica();
+            try {
+                return replica.getConnection();
+            } catch (SQLException ex) {
+                if (replica == primary) {
+                    throw ex;
+                }
+                log.warn("Replica unavailable, reading from the primary database: {}", ex.getMessage());
+                return primary.getConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            DataSource replica = selectReplica();
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException ex) {
+                if (replica == primary) {
+                    throw ex;
+                }
+                log.warn("Replica unavailable, reading from the primary database: {}", ex.getMessage());
+                return primary.getConnection(username, password);
+            }
+        }
+
+    }
+
+}
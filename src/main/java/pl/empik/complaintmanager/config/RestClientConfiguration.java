@@ -1,26 +1,104 @@
 package pl.empik.complaintmanager.config;
 
-import org.springframework.boot.web.client.ClientHttpRequestFactories;
-import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration
 class RestClientConfiguration {
 
+    private static final String METRICS_NAME = "geoLocation";
+
     @Bean
-    RestClient geoLocationClient(GeoLocationConfig config) {
-        var requestFactorySettings = ClientHttpRequestFactorySettings.DEFAULTS
-                .withConnectTimeout(Duration.ofSeconds(config.getConnectionTimeout()))
-                .withReadTimeout(Duration.ofSeconds(config.getReadTimeout()));
+    ClientHttpRequestFactory geoLocationRequestFactory(GeoLocationConfig config, Environment environment,
+                                                       MeterRegistry meterRegistry) {
+        return switch (config.getTransport().getType()) {
+            case JDK -> jdkRequestFactory(config, Threading.VIRTUAL.isActive(environment));
+            case APACHE -> apacheRequestFactory(config, meterRegistry);
+        };
+    }
 
+    @Bean
+    RestClient geoLocationClient(GeoLocationConfig config, ClientHttpRequestFactory geoLocationRequestFactory,
+                                 ObservationRegistry observationRegistry) {
         return RestClient.builder()
-                .requestFactory(ClientHttpRequestFactories.get(requestFactorySettings))
+                .requestFactory(geoLocationRequestFactory)
+                .observationRegistry(observationRegistry)
                 .baseUrl(config.getUrl())
                 .build();
     }
 
+    private static ClientHttpRequestFactory jdkRequestFactory(GeoLocationConfig config, boolean virtualThreads) {
+        GeoLocationConfig.Transport transport = config.getTransport();
+        HttpClient.Builder httpClient = HttpClient.newBuilder()
+                .version(transport.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getConnectionTimeout()));
+        if (virtualThreads) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        var requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(Duration.ofMillis(config.getReadTimeout()));
+        return requestFactory;
+    }
+
+    private static ClientHttpRequestFactory apacheRequestFactory(GeoLocationConfig config, MeterRegistry meterRegistry) {
+        GeoLocationConfig.Transport transport = config.getTransport();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(transport.getMaxConnections())
+                .setMaxConnPerRoute(transport.getMaxConnections())
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectionTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(config.getReadTimeout()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(transport.getTimeToLive().toMillis()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, METRICS_NAME).bindTo(meterRegistry);
+
+        Counter newConnections = connectionCounter(meterRegistry, "new");
+        Counter reusedConnections = connectionCounter(meterRegistry, "reused");
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(TimeValue.ofMilliseconds(transport.getIdleTimeout().toMillis()))
+                .evictExpiredConnections()
+                .addResponseInterceptorLast((response, entity, context) -> {
+                    EndpointDetails endpoint = HttpCoreContext.adapt(context).getEndpointDetails();
+                    if (endpoint != null) {
+                        (endpoint.getRequestCount() > 1 ? reusedConnections : newConnections).increment();
+                    }
+                })
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String connection) {
+        return Counter.builder("geolocation.http.requests")
+                .description("Requests sent to the geolocation service by connection reuse")
+                .tag("connection", connection)
+                .register(meterRegistry);
+    }
+
 }
@@ -0,0 +1,79 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class ShardRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final List<HikariDataSource> shardPools;
+    private volatile List<DataSource> shards;
+
+    ShardRoutingDataSource(List<HikariDataSource> shardPools) {
+        this.shardPools = List.copyOf(shardPools);
+        this.shards = List.copyOf(shardPools);
+        setTargetDataSource(new ShardSelectingDataSource());
+        afterPropertiesSet();
+    }
+
+    public static <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    List<HikariDataSource> getShardPools() {
+        return shardPools;
+    }
+
+    void limitConnections(Function<HikariDataSource, DataSource> limiter) {
+        shards = shardPools.stream().map(limiter).toList();
+    }
+
+    DataSource currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        List<DataSource> candidates = shards;
+        int index = shard != null ? shard : 0;
+        if (index < 0 || index >= candidates.size()) {
+            throw new IllegalStateException("Unknown complaint shard " + index);
+        }
+        return candidates.get(index);
+    }
+
+    @Override
+    public void close() {
+        shardPools.forEach(HikariDataSource::close);
+    }
+
+    private class ShardSelectingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return currentShard().getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return currentShard().getConnection(username, password);
+        }
+
+    }
+
+}
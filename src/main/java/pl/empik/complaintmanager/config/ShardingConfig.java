@@ -0,0 +1,37 @@
+package pl.empik.complaintmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@Data
+@ConfigurationProperties(prefix = "complaints.sharding")
+public class ShardingConfig {
+
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+    private List<ProductRange> productRanges = new ArrayList<>();
+    private int maximumPoolSize = 10;
+
+    @Data
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+
+    }
+
+    @Data
+    public static class ProductRange {
+
+        private long from;
+        private int shard;
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "complaints.sharding", name = "enabled", havingValue = "true")
+class ShardingConfiguration {
+
+    @Bean
+    static BeanPostProcessor shardRoutingDataSourcePostProcessor(ObjectProvider<ShardingConfig> config,
+                                                                 ObjectProvider<ReplicaConfig> replicaConfig,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ShardRoutingPostProcessor(config, replicaConfig, meterRegistry);
+    }
+
+    @Bean
+    FlywayMigrationStrategy shardMigrationStrategy(ObjectProvider<DataSource> dataSource, ShardingConfig config) {
+        return flyway -> {
+            flyway.migrate();
+            if (!(dataSource.getObject() instanceof ShardRoutingDataSource routing)) {
+                throw new IllegalStateException("Complaint sharding is enabled but the data source is not sharded");
+            }
+            List<HikariDataSource> pools = routing.getShardPools();
+            for (int shard = 0; shard < pools.size(); shard++) {
+                if (shard > 0) {
+                    Flyway.configure()
+                            .configuration(flyway.getConfiguration())
+                            .dataSource(pools.get(shard))
+                            .load()
+                            .migrate();
+                }
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(pools.get(shard));
+                registerShard(jdbcTemplate, shard);
+                verifyProductOwnership(jdbcTemplate, shard, config.getProductRanges());
+            }
+        };
+    }
+
+    private static void registerShard(JdbcTemplate shard, int id) {
+        shard.update("INSERT INTO complaint_shard (id) VALUES (?) ON CONFLICT DO NOTHING", id);
+        Integer registered = shard.queryForObject("SELECT id FROM complaint_shard", Integer.class);
+        if (registered == null || registered != id) {
+            throw new IllegalStateException("Database configured as complaint shard " + id
+                    + " is already registered as shard " + registered);
+        }
+    }
+
+    static void verifyProductOwnership(JdbcTemplate shard, int id, List<ShardingConfig.ProductRange> productRanges) {
+        List<ShardingConfig.ProductRange> ranges = productRanges.stream()
+                .sorted(Comparator.comparingLong(ShardingConfig.ProductRange::getFrom))
+                .toList();
+        long from = Long.MIN_VALUE;
+        int owner = 0;
+        for (int i = 0; i <= ranges.size(); i++) {
+            long to = i < ranges.size() ? ranges.get(i).getFrom() : Long.MAX_VALUE;
+            if (owner != id && from < to) {
+                Long product = shard.queryForObject(
+                        "SELECT min(product_id) FROM complaints WHERE product_id >= ? AND product_id < ?",
+                        Long.class, from, to);
+                if (product != null) {
+                    throw new IllegalStateException("Complaint shard " + id + " holds complaints of product " + product
+                            + ", which the configured product ranges assign to shard " + owner
+                            + "; move those complaints to their shard before changing the product ranges");
+                }
+            }
+            if (i < ranges.size()) {
+                from = to;
+                owner = ranges.get(i).getShard();
+            }
+        }
+    }
+
+    private record ShardRoutingPostProcessor(ObjectProvider<ShardingConfig> config,
+                                             ObjectProvider<ReplicaConfig> replicaConfig,
+                                             ObjectProvider<MeterRegistry> meterRegistry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource && "dataSource".equals(beanName)) {
+                if (replicaConfig.getObject().isEnabled()) {
+                    throw new IllegalStateException("Read replicas cannot be combined with complaint sharding");
+                }
+                return new ShardRoutingDataSource(shardPools(dataSource, config.getObject()));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        private List<HikariDataSource> shardPools(HikariDataSource primary, ShardingConfig shardingConfig) {
+            List<HikariDataSource> pools = new ArrayList<>();
+            pools.add(primary);
+            for (ShardingConfig.Shard shard : shardingConfig.getShards()) {
+                HikariConfig pool = new HikariConfig();
+                primary.copyStateTo(pool);
+                pool.setPoolName("shard-" + pools.size());
+                pool.setJdbcUrl(shard.getUrl());
+                pool.setMaximumPoolSize(shardingConfig.getMaximumPoolSize());
+                pool.setMinimumIdle(Math.min(pool.getMinimumIdle(), shardingConfig.getMaximumPoolSize()));
+                if (StringUtils.hasText(shard.getUsername())) {
+                    pool.setUsername(shard.getUsername());
+                    pool.setPassword(shard.getPassword());
+                }
+                pool.setMetricRegistry(null);
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry.getObject()));
+                pools.add(new HikariDataSource(pool));
+            }
+            return pools;
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+class VirtualThreadConfiguration {
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && "dataSource".equals(beanName)) {
+                    return limitConnections(dataSource);
+                }
+                if (bean instanceof ReplicaRoutingDataSource dataSource) {
+                    dataSource.limitConnections(VirtualThreadConfiguration::limitConnections);
+                }
+                if (bean instanceof ShardRoutingDataSource dataSource) {
+                    dataSource.limitConnections(VirtualThreadConfiguration::limitConnections);
+                }
+                return bean;
+            }
+
+        };
+    }
+
+    private static DataSource limitConnections(HikariDataSource dataSource) {
+        return new ConnectionLimitingDataSource(dataSource, dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+    }
+
+}
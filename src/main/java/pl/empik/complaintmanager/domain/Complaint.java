@@ -10,6 +10,8 @@ import java.time.LocalDateTime;
 @Table(name = "complaints")
 public class Complaint {
 
+    public static final String UNKNOWN_COUNTRY = "XX";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,8 +34,8 @@ public class Complaint {
     @Column(name = "claim_counter", nullable = false)
     private Integer claimCounter;
 
-    public void incrementClaimCounter() {
-        this.claimCounter++;
-    }
+    @Version
+    @Column(nullable = false)
+    private Long version;
 
 }
@@ -0,0 +1,18 @@
+package pl.empik.complaintmanager.domain;
+
+import java.time.LocalDateTime;
+
+public record ComplaintFilter(Long productId, String complainant, LocalDateTime from, LocalDateTime to) {
+
+    public ComplaintFilter {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("Date range start must be before its end");
+        }
+    }
+
+    String complainantPattern() {
+        String escaped = complainant.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+}
@@ -0,0 +1,187 @@
+package pl.empik.complaintmanager.domain;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class ComplaintJdbcRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String FIND_EXISTING_KEYS = """
+            SELECT c.product_id, c.complainant
+            FROM complaints c
+            JOIN unnest(?, ?) AS k(product_id, complainant)
+              ON c.product_id = k.product_id AND c.complainant = k.complainant
+            """;
+
+    private static final String INSERT_OR_ADD_CLAIMS = """
+            SELECT u.id
+            FROM unnest(?, ?, ?, ?, ?, ?)
+                AS c(product_id, content, creation_date, complainant, country, claim_counter)
+            CROSS JOIN LATERAL upsert_complaint(c.product_id, c.content, c.creation_date, c.complainant, c.country,
+                                               c.claim_counter) AS u
+            """;
+
+    private static final String ADD_CLAIMS = """
+            UPDATE complaints
+            SET claim_counter = claim_counter + ?
+            WHERE product_id = ? AND complainant = ?
+            """;
+
+    private static final String ADD_CLAIMS_BULK = """
+            UPDATE complaints c
+            SET claim_counter = c.claim_counter + d.claims
+            FROM unnest(?, ?, ?) AS d(product_id, complainant, claims)
+            WHERE c.product_id = d.product_id AND c.complainant = d.complainant
+            """;
+
+    private static final String ADD_PENDING_COUNTRY = """
+            INSERT INTO country_enrichment_outbox (product_id, complainant, ip_address)
+            VALUES (?, ?, ?)
+            ON CONFLICT (product_id, complainant) DO NOTHING
+            """;
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final RowMapper<Complaint> COMPLAINT_ROW_MAPPER = (rs, rowNum) -> {
+        Complaint complaint = new Complaint();
+        complaint.setId(rs.getLong("id"));
+        complaint.setProductId(rs.getLong("product_id"));
+        complaint.setContent(rs.getString("content"));
+        complaint.setCreationDate(rs.getObject("creation_date", LocalDateTime.class));
+        complaint.setComplainant(rs.getString("complainant"));
+        complaint.setCountry(rs.getString("country"));
+        complaint.setClaimCounter(rs.getInt("claim_counter"));
+        complaint.setVersion(rs.getLong("version"));
+        return complaint;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<ComplaintKey> findExistingKeys(Collection<ComplaintKey> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        Long[] productIds = keys.stream().map(ComplaintKey::productId).toArray(Long[]::new);
+        String[] complainants = keys.stream().map(ComplaintKey::complainant).toArray(String[]::new);
+
+        return new HashSet<>(jdbcTemplate.query(FIND_EXISTING_KEYS,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint", productIds));
+                    ps.setArray(2, connection.createArrayOf("varchar", complainants));
+                },
+                (rs, rowNum) -> new ComplaintKey(rs.getLong("product_id"), rs.getString("complainant"))));
+    }
+
+    @Transactional
+    public void saveBatch(List<Complaint> newComplaints, Map<ComplaintKey, Integer> claimIncrements,
+                          Map<ComplaintKey, String> pendingCountryIps) {
+        for (int from = 0; from < newComplaints.size(); from += BATCH_SIZE) {
+            insertOrAddClaims(newComplaints.subList(from, Math.min(from + BATCH_SIZE, newComplaints.size())));
+        }
+        jdbcTemplate.batchUpdate(ADD_CLAIMS, List.copyOf(claimIncrements.entrySet()), BATCH_SIZE, (ps, increment) -> {
+            ps.setInt(1, increment.getValue());
+            ps.setLong(2, increment.getKey().productId());
+            ps.setString(3, increment.getKey().complainant());
+        });
+        jdbcTemplate.batchUpdate(ADD_PENDING_COUNTRY, List.copyOf(pendingCountryIps.entrySet()), BATCH_SIZE, (ps, pending) -> {
+            ps.setLong(1, pending.getKey().productId());
+            ps.setString(2, pending.getKey().complainant());
+            ps.setString(3, pending.getValue());
+        });
+    }
+
+    @Transactional
+    public int addClaims(Map<ComplaintKey, Integer> claims) {
+        List<Map.Entry<ComplaintKey, Integer>> sorted = claims.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(ComplaintKey::productId)
+                        .thenComparing(ComplaintKey::complainant)))
+                .toList();
+        int updated = 0;
+        for (int from = 0; from < sorted.size(); from += BATCH_SIZE) {
+            List<Map.Entry<ComplaintKey, Integer>> chunk = sorted.subList(from, Math.min(from + BATCH_SIZE, sorted.size()));
+            updated += jdbcTemplate.update(ADD_CLAIMS_BULK, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setArray(1, connection.createArrayOf("bigint",
+                        chunk.stream().map(claim -> claim.getKey().productId()).toArray()));
+                ps.setArray(2, connection.createArrayOf("varchar",
+                        chunk.stream().map(claim -> claim.getKey().complainant()).toArray()));
+                ps.setArray(3, connection.createArrayOf("int4",
+                        chunk.stream().map(Map.Entry::getValue).toArray()));
+            });
+        }
+        return updated;
+    }
+
+    private void insertOrAddClaims(List<Complaint> complaints) {
+        jdbcTemplate.query(INSERT_OR_ADD_CLAIMS,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint",
+                            complaints.stream().map(Complaint::getProductId).toArray()));
+                    ps.setArray(2, connection.createArrayOf("text",
+                            complaints.stream().map(Complaint::getContent).toArray()));
+                    ps.setArray(3, connection.createArrayOf("timestamp",
+                            complaints.stream().map(Complaint::getCreationDate).map(Timestamp::valueOf).toArray()));
+                    ps.setArray(4, connection.createArrayOf("varchar",
+                            complaints.stream().map(Complaint::getComplainant).toArray()));
+                    ps.setArray(5, connection.createArrayOf("varchar",
+                            complaints.stream().map(Complaint::getCountry).toArray()));
+                    ps.setArray(6, connection.createArrayOf("int4",
+                            complaints.stream().map(Complaint::getClaimCounter).toArray()));
+                },
+                (rs, rowNum) -> rs.getLong(1));
+    }
+
+    public Stream<Complaint> streamAll(Long productId, LocalDateTime from, LocalDateTime to) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (productId != null) {
+            conditions.add("product_id = ?");
+            parameters.add(productId);
+        }
+        if (from != null) {
+            conditions.add("creation_date >= ?");
+            parameters.add(from);
+        }
+        if (to != null) {
+            conditions.add("creation_date < ?");
+            parameters.add(to);
+        }
+        String sql = "SELECT * FROM complaints"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY creation_date, id";
+
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            return ps;
+        }, COMPLAINT_ROW_MAPPER);
+    }
+
+}
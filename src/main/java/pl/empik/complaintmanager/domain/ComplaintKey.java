@@ -0,0 +1,4 @@
+package pl.empik.complaintmanager.domain;
+
+public record ComplaintKey(Long productId, String complainant) {
+}
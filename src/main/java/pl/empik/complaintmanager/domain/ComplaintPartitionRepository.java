@@ -0,0 +1,85 @@
+package pl.empik.complaintmanager.domain;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class ComplaintPartitionRepository {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("complaints_p\\d{6}");
+
+    private static final String ARCHIVED_COLUMNS =
+            "id, product_id, content, creation_date, complainant, country, claim_counter, version";
+
+    private static final String FIND_ATTACHED = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'complaints'::regclass AND c.relname ~ '^complaints_p[0-9]{6}$'
+            ORDER BY c.relname
+            """;
+
+    private static final String FIND_DETACHED = """
+            SELECT c.relname
+            FROM pg_class c
+            WHERE c.relkind = 'r' AND NOT c.relispartition
+              AND c.relnamespace = current_schema()::regnamespace
+              AND c.relname ~ '^complaints_p[0-9]{6}$'
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public String createPartition(LocalDate month) {
+        return jdbcTemplate.queryForObject("SELECT create_complaint_partition(?)", String.class, month);
+    }
+
+    public List<String> findAttachedPartitions() {
+        return jdbcTemplate.queryForList(FIND_ATTACHED, String.class);
+    }
+
+    public List<String> findDetachedPartitions() {
+        return jdbcTemplate.queryForList(FIND_DETACHED, String.class);
+    }
+
+    public String detachPartition(String partition) {
+        return jdbcTemplate.queryForObject("SELECT detach_complaint_partition(?)", String.class,
+                validated(partition));
+    }
+
+    public long archive(String partition, OutputStream out) {
+        String copy = "COPY " + validated(partition) + " (" + ARCHIVED_COLUMNS + ") TO STDOUT WITH (FORMAT csv, HEADER)";
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(copy, out);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    public void drop(String partition) {
+        jdbcTemplate.execute("DROP TABLE " + validated(partition));
+    }
+
+    private static String validated(String partition) {
+        if (!PARTITION_NAME.matcher(partition).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + partition);
+        }
+        return partition;
+    }
+
+}
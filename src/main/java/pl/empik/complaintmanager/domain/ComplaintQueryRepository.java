@@ -0,0 +1,16 @@
+package pl.empik.complaintmanager.domain;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ComplaintQueryRepository {
+
+    Page<ComplaintView> findPage(ComplaintFilter filter, boolean withContent, Pageable pageable);
+
+    List<ComplaintView> findAfter(ComplaintFilter filter, LocalDateTime creationDate, Long id, int limit,
+                                  boolean withContent);
+
+}
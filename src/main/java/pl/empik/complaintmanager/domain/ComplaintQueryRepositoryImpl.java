@@ -0,0 +1,105 @@
+package pl.empik.complaintmanager.domain;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class ComplaintQueryRepositoryImpl implements ComplaintQueryRepository {
+
+    private static final String SELECT_VIEW = "select new pl.empik.complaintmanager.domain.ComplaintView("
+            + "c.id, c.productId, c.content, c.creationDate, c.complainant, c.country, c.claimCounter, c.version)";
+
+    private static final String SELECT_VIEW_WITHOUT_CONTENT = "select new pl.empik.complaintmanager.domain.ComplaintView("
+            + "c.id, c.productId, c.creationDate, c.complainant, c.country, c.claimCounter, c.version)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ComplaintView> findPage(ComplaintFilter filter, boolean withContent, Pageable pageable) {
+        String from = " from Complaint c" + where(conditions(filter));
+        String jpql = QueryUtils.applySorting(select(withContent) + from, pageable.getSort(), "c");
+        TypedQuery<ComplaintView> query = entityManager.createQuery(jpql, ComplaintView.class);
+        bindFilters(query, filter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("select count(c)" + from, Long.class);
+            bindFilters(count, filter);
+            return count.getSingleResult();
+        });
+    }
+
+    @Override
+    public List<ComplaintView> findAfter(ComplaintFilter filter, LocalDateTime creationDate, Long id, int limit,
+                                         boolean withContent) {
+        List<String> conditions = conditions(filter);
+        if (creationDate != null && id != null) {
+            conditions.add("(c.creationDate, c.id) > (:creationDate, :id)");
+        }
+
+        String jpql = select(withContent) + " from Complaint c" + where(conditions) + " order by c.creationDate, c.id";
+        TypedQuery<ComplaintView> query = entityManager.createQuery(jpql, ComplaintView.class);
+        bindFilters(query, filter);
+        if (creationDate != null && id != null) {
+            query.setParameter("creationDate", creationDate);
+            query.setParameter("id", id);
+        }
+        query.setMaxResults(limit);
+
+        return query.getResultList();
+    }
+
+    private static String select(boolean withContent) {
+        return withContent ? SELECT_VIEW : SELECT_VIEW_WITHOUT_CONTENT;
+    }
+
+    private static List<String> conditions(ComplaintFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.productId() != null) {
+            conditions.add("c.productId = :productId");
+        }
+        if (filter.complainant() != null) {
+            conditions.add("lower(c.complainant) like lower(:complainant) escape '\\'");
+        }
+        if (filter.from() != null) {
+            conditions.add("c.creationDate >= :from");
+        }
+        if (filter.to() != null) {
+            conditions.add("c.creationDate < :to");
+        }
+        return conditions;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static void bindFilters(Query query, ComplaintFilter filter) {
+        if (filter.productId() != null) {
+            query.setParameter("productId", filter.productId());
+        }
+        if (filter.complainant() != null) {
+            query.setParameter("complainant", filter.complainantPattern());
+        }
+        if (filter.from() != null) {
+            query.setParameter("from", filter.from());
+        }
+        if (filter.to() != null) {
+            query.setParameter("to", filter.to());
+        }
+    }
+
+}
@@ -3,19 +3,67 @@ package pl.empik.complaintmanager.domain;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
-public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
+public interface ComplaintRepository extends JpaRepository<Complaint, Long>, ComplaintQueryRepository {
 
     Optional<Complaint> findByProductIdAndComplainant(Long productId, String complainant);
 
     Page<Complaint> findByProductId(Long productId, Pageable pageable);
 
-    Page<Complaint> findByComplainantContainingIgnoreCase(String complainant, Pageable pageable);
+    @Query("""
+            select new pl.empik.complaintmanager.domain.ComplaintView(
+                c.id, c.productId, c.content, c.creationDate, c.complainant, c.country, c.claimCounter, c.version)
+            from Complaint c
+            where c.id = :id
+            """)
+    Optional<ComplaintView> findViewById(@Param("id") Long id);
 
-    Page<Complaint> findByProductIdAndComplainantContainingIgnoreCase(Long productId, String complainant, Pageable pageable);
+    @Transactional
+    @Query(value = """
+            UPDATE complaints
+            SET claim_counter = claim_counter + 1
+            WHERE product_id = :productId AND complainant = :complainant
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Complaint> incrementClaimCounter(@Param("productId") Long productId,
+                                             @Param("complainant") String complainant);
+
+    @Transactional
+    @Query(value = """
+            UPDATE complaints
+            SET content = :content, version = version + 1
+            WHERE id = :id AND version = :version
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Complaint> updateContentIfVersion(@Param("id") Long id,
+                                               @Param("content") String content,
+                                               @Param("version") Long version);
+
+    @Transactional
+    @Query(value = """
+            WITH complaint AS (
+                SELECT * FROM upsert_complaint(:productId, :content, :creationDate, :complainant, :country, 1)
+            ), pending_country AS (
+                INSERT INTO country_enrichment_outbox (product_id, complainant, ip_address)
+                SELECT product_id, complainant, :ipAddress FROM complaint WHERE country = :pendingCountry
+                ON CONFLICT (product_id, complainant) DO NOTHING
+            )
+            SELECT * FROM complaint
+            """, nativeQuery = true)
+    Complaint insertOrIncrementClaimCounter(@Param("productId") Long productId,
+                                            @Param("content") String content,
+                                            @Param("creationDate") LocalDateTime creationDate,
+                                            @Param("complainant") String complainant,
+                                            @Param("country") String country,
+                                            @Param("ipAddress") String ipAddress,
+                                            @Param("pendingCountry") String pendingCountry);
 
 }
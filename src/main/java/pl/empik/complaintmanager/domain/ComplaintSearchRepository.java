@@ -0,0 +1,84 @@
+package pl.empik.complaintmanager.domain;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class ComplaintSearchRepository {
+
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=<mark>, StopSel=</mark>, MinWords=10, MaxWords=30, MaxFragments=2, FragmentDelimiter=\" ... \"";
+
+    private static final String SEARCH = """
+            SELECT m.*, ts_headline('english', m.content, m.query, ?) AS highlight
+            FROM (
+                SELECT c.id, c.product_id, c.content, c.creation_date, c.complainant, c.country, c.claim_counter,
+                       c.version, q.query, ts_rank_cd(c.content_tsv, q.query) AS rank
+                FROM complaints c, websearch_to_tsquery('english', ?) AS q(query)
+                WHERE %s
+                ORDER BY rank DESC, c.id DESC
+                LIMIT ?
+            ) m
+            ORDER BY m.rank DESC, m.id DESC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<ComplaintMatch> search(String query, ComplaintFilter filter, Float rank, Long id, int limit,
+                                       boolean withContent) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(HEADLINE_OPTIONS);
+        parameters.add(query);
+        conditions.add("c.content_tsv @@ q.query");
+        if (filter.productId() != null) {
+            conditions.add("c.product_id = ?");
+            parameters.add(filter.productId());
+        }
+        if (filter.complainant() != null) {
+            conditions.add("lower(c.complainant) LIKE lower(?) ESCAPE '\\'");
+            parameters.add(filter.complainantPattern());
+        }
+        if (filter.from() != null) {
+            conditions.add("c.creation_date >= ?");
+            parameters.add(filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("c.creation_date < ?");
+            parameters.add(filter.to());
+        }
+        if (rank != null && id != null) {
+            conditions.add("(ts_rank_cd(c.content_tsv, q.query), c.id) < (?, ?)");
+            parameters.add(rank);
+            parameters.add(id);
+        }
+        parameters.add(limit);
+
+        return jdbcTemplate.query(SEARCH.formatted(String.join(" AND ", conditions)),
+                (rs, rowNum) -> new ComplaintMatch(
+                        new ComplaintView(
+                                rs.getLong("id"),
+                                rs.getLong("product_id"),
+                                withContent ? rs.getString("content") : null,
+                                rs.getObject("creation_date", LocalDateTime.class),
+                                rs.getString("complainant"),
+                                rs.getString("country"),
+                                rs.getInt("claim_counter"),
+                                rs.getLong("version")),
+                        rs.getFloat("rank"),
+                        rs.getString("highlight")),
+                parameters.toArray());
+    }
+
+    public record ComplaintMatch(ComplaintView complaint, float rank, String highlight) {
+    }
+
+}
@@ -0,0 +1,71 @@
+package pl.empik.complaintmanager.domain;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class ComplaintStatsRepository {
+
+    private static final String FIND_BY_PRODUCT_ID = """
+            SELECT country, complaint_count, claim_count
+            FROM complaint_stats
+            WHERE product_id = ?
+            ORDER BY country
+            """;
+
+    private static final String FIND_COUNTRIES = """
+            SELECT id, rtrim(country) AS country
+            FROM complaints
+            WHERE id = ANY (?)
+            """;
+
+    private static final String REBUILD = """
+            INSERT INTO complaint_stats (product_id, country, complaint_count, claim_count)
+            SELECT product_id, rtrim(country), count(*), sum(claim_counter)
+            FROM complaints
+            GROUP BY product_id, rtrim(country)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<CountryStats> findByProductId(Long productId) {
+        return jdbcTemplate.query(FIND_BY_PRODUCT_ID,
+                (rs, rowNum) -> new CountryStats(rs.getString("country"), rs.getLong("complaint_count"),
+                        rs.getLong("claim_count")),
+                productId);
+    }
+
+    public Map<Long, String> findCountries(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> countries = new HashMap<>();
+        jdbcTemplate.query(FIND_COUNTRIES,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray(Long[]::new))),
+                rs -> {
+                    countries.put(rs.getLong("id"), rs.getString("country"));
+                });
+        return countries;
+    }
+
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE complaints IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM complaint_stats");
+        return jdbcTemplate.update(REBUILD);
+    }
+
+    public record CountryStats(String country, long complaintCount, long claimCount) {
+    }
+
+}
@@ -0,0 +1,13 @@
+package pl.empik.complaintmanager.domain;
+
+import java.time.LocalDateTime;
+
+public record ComplaintView(Long id, Long productId, String content, LocalDateTime creationDate, String complainant,
+                            String country, Integer claimCounter, Long version) {
+
+    public ComplaintView(Long id, Long productId, LocalDateTime creationDate, String complainant, String country,
+                         Integer claimCounter, Long version) {
+        this(id, productId, null, creationDate, complainant, country, claimCounter, version);
+    }
+
+}
@@ -0,0 +1,101 @@
+package pl.empik.complaintmanager.domain;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class CountryEnrichmentRepository {
+
+    private static final String CLAIM_DUE = """
+            UPDATE country_enrichment_outbox o
+            SET attempts = o.attempts + 1,
+                next_attempt_at = now() + ? * INTERVAL '1 millisecond'
+            WHERE o.id IN (
+                SELECT id
+                FROM country_enrichment_outbox
+                WHERE next_attempt_at <= now()
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING o.id, o.product_id, o.complainant, o.ip_address, o.attempts
+            """;
+
+    private static final String RESOLVE = """
+            WITH resolved AS (
+                DELETE FROM country_enrichment_outbox
+                WHERE id = ANY (?)
+                RETURNING product_id, complainant
+            )
+            UPDATE complaints c
+            SET country = ?
+            FROM resolved r
+            WHERE c.product_id = r.product_id AND c.complainant = r.complainant AND c.country = ?
+            RETURNING c.id
+            """;
+
+    private static final String RETRY_LATER = """
+            UPDATE country_enrichment_outbox
+            SET next_attempt_at = now() + ? * INTERVAL '1 millisecond'
+            WHERE id = ?
+            """;
+
+    private static final String DELETE = """
+            DELETE FROM country_enrichment_outbox
+            WHERE id = ANY (?)
+            """;
+
+    private static final String STATISTICS = """
+            SELECT count(*) AS depth,
+                   coalesce(extract(EPOCH FROM now() - min(created_at)) * 1000, 0) AS lag_millis
+            FROM country_enrichment_outbox
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<PendingCountry> claimDue(int limit, Duration lease) {
+        return jdbcTemplate.query(CLAIM_DUE,
+                (rs, rowNum) -> new PendingCountry(rs.getLong("id"), rs.getLong("product_id"),
+                        rs.getString("complainant"), rs.getString("ip_address"), rs.getInt("attempts")),
+                lease.toMillis(), limit);
+    }
+
+    public List<Long> resolve(Collection<Long> ids, String country, String pendingCountry) {
+        Long[] idArray = ids.toArray(Long[]::new);
+        return jdbcTemplate.query(RESOLVE,
+                ps -> {
+                    Connection connection = ps.getConnection();
+                    ps.setArray(1, connection.createArrayOf("bigint", idArray));
+                    ps.setString(2, country);
+                    ps.setString(3, pendingCountry);
+                },
+                (rs, rowNum) -> rs.getLong(1));
+    }
+
+    public void retryLater(Long id, Duration delay) {
+        jdbcTemplate.update(RETRY_LATER, delay.toMillis(), id);
+    }
+
+    public void delete(Collection<Long> ids) {
+        Long[] idArray = ids.toArray(Long[]::new);
+        jdbcTemplate.update(DELETE, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", idArray)));
+    }
+
+    public OutboxStatistics statistics() {
+        return jdbcTemplate.queryForObject(STATISTICS,
+                (rs, rowNum) -> new OutboxStatistics(rs.getLong("depth"), Duration.ofMillis(rs.getLong("lag_millis"))));
+    }
+
+    public record OutboxStatistics(long depth, Duration lag) {
+    }
+
+}
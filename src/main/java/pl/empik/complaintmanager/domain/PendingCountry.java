@@ -0,0 +1,4 @@
+package pl.empik.complaintmanager.domain;
+
+public record PendingCountry(Long id, Long productId, String complainant, String ipAddress, int attempts) {
+}
@@ -0,0 +1,226 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import pl.empik.complaintmanager.config.ComplaintClaimsConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintJdbcRepository;
+import pl.empik.complaintmanager.domain.ComplaintKey;
+import pl.empik.complaintmanager.domain.ComplaintView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class ClaimAccumulator {
+
+    static final String PENDING_GAUGE = "complaints.claims.pending";
+
+    private final ComplaintJdbcRepository complaintJdbcRepository;
+    private final ComplaintClaimsConfig config;
+    private final ConcurrentMap<ComplaintKey, PendingClaims> pending = new ConcurrentHashMap<>();
+    private final StampedLock flushLock = new StampedLock();
+    private final PlatformTransactionManager transactionManager;
+    private final ComplaintShards complaintShards;
+    private volatile boolean accepting;
+    private volatile boolean stopped;
+
+    public ClaimAccumulator(ComplaintJdbcRepository complaintJdbcRepository, ComplaintClaimsConfig config,
+                            PlatformTransactionManager transactionManager, ComplaintShards complaintShards,
+                            MeterRegistry meterRegistry) {
+        this.complaintJdbcRepository = complaintJdbcRepository;
+        this.config = config;
+        this.transactionManager = transactionManager;
+        this.complaintShards = complaintShards;
+        this.accepting = config.isWriteBehind();
+        Gauge.builder(PENDING_GAUGE, this, ClaimAccumulator::pendingClaims)
+                .description("Repeat claims accepted in memory and not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    Optional<Long> claim(Long productId, String complainant) {
+        if (!accepting) {
+            return Optional.empty();
+        }
+        PendingClaims claims = pending.get(new ComplaintKey(productId, complainant));
+        if (claims == null || claims.add() < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(claims.id);
+    }
+
+    void register(Complaint complaint) {
+        if (!accepting || complaint.getClaimCounter() < 2 || pending.size() >= config.getMaxKeys()) {
+            return;
+        }
+        pending.putIfAbsent(new ComplaintKey(complaint.getProductId(), complaint.getComplainant()),
+                new PendingClaims(complaint.getId()));
+    }
+
+    <T> T read(Supplier<T> reader) {
+        long stamp = flushLock.tryOptimisticRead();
+        if (stamp != 0) {
+            T result = reader.get();
+            if (flushLock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = flushLock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            flushLock.unlockRead(stamp);
+        }
+    }
+
+    ComplaintView merge(ComplaintView complaint) {
+        PendingClaims claims = pending.get(new ComplaintKey(complaint.productId(), complaint.complainant()));
+        long unflushed = claims == null ? 0 : claims.unflushed();
+        return unflushed == 0 ? complaint : withClaimCounter(complaint, complaint.claimCounter() + unflushed);
+    }
+
+    Map<Long, Long> pendingByComplaint(Long productId) {
+        Map<Long, Long> result = new HashMap<>();
+        pending.forEach((key, claims) -> {
+            long unflushed = claims.unflushed();
+            if (key.productId().equals(productId) && unflushed > 0) {
+                result.put(claims.id, unflushed);
+            }
+        });
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${complaints.claims.flushInterval}")
+    public synchronized void flush() {
+        Map<Integer, Map<ComplaintKey, Integer>> deltas = new TreeMap<>();
+        Map<ComplaintKey, Long> totals = new HashMap<>();
+        List<ComplaintKey> evicted = new ArrayList<>();
+        pending.forEach((key, claims) -> {
+            long total = claims.added.sum();
+            if (total == claims.flushed && !claims.closed) {
+                claims.close();
+                total = claims.added.sum();
+            }
+            if (claims.closed) {
+                evicted.add(key);
+            }
+            if (total > claims.flushed) {
+                deltas.computeIfAbsent(complaintShards.shardOf(key.productId()), shard -> new HashMap<>())
+                        .put(key, Math.toIntExact(total - claims.flushed));
+                totals.put(key, total);
+            }
+        });
+        if (deltas.isEmpty()) {
+            evicted.forEach(pending::remove);
+            return;
+        }
+
+        boolean flushed = true;
+        for (Map.Entry<Integer, Map<ComplaintKey, Integer>> shard : deltas.entrySet()) {
+            flushed &= complaintShards.route(shard.getKey(), () -> flush(shard.getValue(), totals));
+        }
+        evicted.forEach(key -> pending.computeIfPresent(key, (ignored, claims) -> claims.unflushed() == 0 ? null : claims));
+        accepting = flushed && config.isWriteBehind() && !stopped;
+    }
+
+    private boolean flush(Map<ComplaintKey, Integer> deltas, Map<ComplaintKey, Long> totals) {
+        try {
+            TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+            try {
+                complaintJdbcRepository.addClaims(deltas);
+            } catch (RuntimeException ex) {
+                transactionManager.rollback(transaction);
+                throw ex;
+            }
+            long stamp = flushLock.writeLock();
+            try {
+                transactionManager.commit(transaction);
+                deltas.keySet().forEach(key -> pending.get(key).flushed = totals.get(key));
+            } finally {
+                flushLock.unlockWrite(stamp);
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not flush {} pending claim counters, accepting claims synchronously until a flush succeeds",
+                    deltas.size(), ex);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        accepting = false;
+        pending.values().forEach(PendingClaims::close);
+        flush();
+        long lost = pendingClaims();
+        if (lost > 0) {
+            log.error("Shutting down with {} claims that could not be written to the database", lost);
+        }
+    }
+
+    long pendingClaims() {
+        return pending.values().stream().mapToLong(PendingClaims::unflushed).sum();
+    }
+
+    private static ComplaintView withClaimCounter(ComplaintView complaint, long claimCounter) {
+        return new ComplaintView(complaint.id(), complaint.productId(), complaint.content(), complaint.creationDate(),
+                complaint.complainant(), complaint.country(), Math.toIntExact(claimCounter), complaint.version());
+    }
+
+    private static final class PendingClaims {
+
+        private final Long id;
+        private final LongAdder added = new LongAdder();
+        private final LongAdder writers = new LongAdder();
+        private volatile boolean closed;
+        private volatile long flushed;
+
+        private PendingClaims(Long id) {
+            this.id = id;
+        }
+
+        private long add() {
+            writers.increment();
+            try {
+                if (closed) {
+                    return -1;
+                }
+                added.increment();
+                return added.sum();
+            } finally {
+                writers.decrement();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            while (writers.sum() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+
+        private long unflushed() {
+            return added.sum() - flushed;
+        }
+
+    }
+
+}
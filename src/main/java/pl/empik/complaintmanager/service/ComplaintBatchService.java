@@ -0,0 +1,155 @@
+package pl.empik.complaintmanager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintJdbcRepository;
+import pl.empik.complaintmanager.domain.ComplaintKey;
+import pl.empik.complaintmanager.web.model.ComplaintBatchItemDto;
+import pl.empik.complaintmanager.web.model.ComplaintBatchResponseDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ComplaintBatchService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_COMPLAINANT_LENGTH = 255;
+
+    private final ComplaintJdbcRepository complaintJdbcRepository;
+    private final GeoLocationService geoLocationService;
+    private final GeoLocationConfig geoLocationConfig;
+    private final ComplaintShards complaintShards;
+
+    @CacheEvict(cacheNames = ComplaintService.COMPLAINTS_CACHE, allEntries = true)
+    public ComplaintBatchResponseDto addComplaints(List<ComplaintBatchItemDto> complaints) {
+        for (int i = 0; i < complaints.size(); i++) {
+            validate(complaints.get(i), i + 1, 0);
+        }
+        return addAll(complaints.iterator());
+    }
+
+    @CacheEvict(cacheNames = ComplaintService.COMPLAINTS_CACHE, allEntries = true)
+    public ComplaintBatchResponseDto addComplaints(Iterator<ComplaintBatchItemDto> complaints) {
+        return addAll(complaints);
+    }
+
+    private ComplaintBatchResponseDto addAll(Iterator<ComplaintBatchItemDto> complaints) {
+        var result = new ComplaintBatchResponseDto(0, 0, 0);
+        List<ComplaintBatchItemDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (complaints.hasNext()) {
+            ComplaintBatchItemDto item = complaints.next();
+            validate(item, result.getReceived() + chunk.size() + 1, result.getReceived());
+            chunk.add(item);
+            if (chunk.size() == CHUNK_SIZE) {
+                addChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            addChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private static void validate(ComplaintBatchItemDto item, int position, int stored) {
+        String problem = findProblem(item);
+        if (problem != null) {
+            throw new IllegalArgumentException("Batch item " + position + ": " + problem
+                    + "; " + stored + " earlier items were stored");
+        }
+    }
+
+    private static String findProblem(ComplaintBatchItemDto item) {
+        if (item == null) {
+            return "item is null";
+        }
+        if (item.getProductId() == null) {
+            return "productId is required";
+        }
+        if (item.getContent() == null) {
+            return "content is required";
+        }
+        if (item.getComplainant() == null || item.getComplainant().isBlank()) {
+            return "complainant is required";
+        }
+        if (item.getComplainant().length() > MAX_COMPLAINANT_LENGTH) {
+            return "complainant must not be longer than " + MAX_COMPLAINANT_LENGTH + " characters";
+        }
+        if (item.getIp() == null || item.getIp().isBlank()) {
+            return "ip is required";
+        }
+        return null;
+    }
+
+    private void addChunk(List<ComplaintBatchItemDto> chunk, ComplaintBatchResponseDto result) {
+        chunk.stream()
+                .collect(Collectors.groupingBy(item -> complaintShards.shardOf(item.getProductId()), TreeMap::new,
+                        Collectors.toList()))
+                .forEach((shard, items) -> addShardChunk(shard, items, result));
+    }
+
+    private void addShardChunk(int shard, List<ComplaintBatchItemDto> chunk, ComplaintBatchResponseDto result) {
+        Map<ComplaintKey, ComplaintBatchItemDto> firstClaims = new LinkedHashMap<>();
+        Map<ComplaintKey, Integer> claims = new HashMap<>();
+        for (ComplaintBatchItemDto item : chunk) {
+            var key = new ComplaintKey(item.getProductId(), item.getComplainant());
+            firstClaims.putIfAbsent(key, item);
+            claims.merge(key, 1, Integer::sum);
+        }
+
+        Set<ComplaintKey> existingKeys = complaintShards.read(shard,
+                () -> complaintJdbcRepository.findExistingKeys(firstClaims.keySet()));
+        Map<ComplaintKey, Integer> claimIncrements = new HashMap<>();
+        Map<String, String> countries = new HashMap<>();
+        List<Complaint> newComplaints = new ArrayList<>();
+        Map<ComplaintKey, String> pendingCountryIps = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        firstClaims.forEach((key, item) -> {
+            if (existingKeys.contains(key)) {
+                claimIncrements.put(key, claims.get(key));
+                return;
+            }
+            Complaint complaint = new Complaint();
+            complaint.setProductId(item.getProductId());
+            complaint.setContent(item.getContent());
+            complaint.setComplainant(item.getComplainant());
+            complaint.setCountry(geoLocationConfig.getEnrichment().isAsync()
+                    ? geoLocationService.findLocalCountry(item.getIp()).orElse(Complaint.UNKNOWN_COUNTRY)
+                    : countries.computeIfAbsent(item.getIp(), this::resolveCountry));
+            complaint.setCreationDate(now);
+            complaint.setClaimCounter(claims.get(key));
+            newComplaints.add(complaint);
+            if (Complaint.UNKNOWN_COUNTRY.equals(complaint.getCountry())) {
+                pendingCountryIps.put(key, item.getIp());
+            }
+        });
+
+        complaintShards.write(shard, () -> complaintJdbcRepository.saveBatch(newComplaints, claimIncrements,
+                pendingCountryIps));
+        result.setReceived(result.getReceived() + chunk.size());
+        result.setCreated(result.getCreated() + newComplaints.size());
+        result.setIncremented(result.getIncremented() + chunk.size() - newComplaints.size());
+    }
+
+    private String resolveCountry(String ipAddress) {
+        try {
+            return geoLocationService.getCountryFromIp(ipAddress);
+        } catch (CountryNotResolvedException ex) {
+            return Complaint.UNKNOWN_COUNTRY;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package pl.empik.complaintmanager.service;
 
 import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintView;
 import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
 
 class ComplaintConverter {
@@ -13,7 +14,25 @@ class ComplaintConverter {
                 complaint.getCreationDate(),
                 complaint.getComplainant(),
                 complaint.getCountry(),
-                complaint.getClaimCounter()
+                complaint.getClaimCounter(),
+                complaint.getVersion()
+        );
+    }
+
+    ComplaintResponseDto toResponseDto(ComplaintView complaint) {
+        return toResponseDto(complaint, ComplaintFields.ALL_FIELDS);
+    }
+
+    ComplaintResponseDto toResponseDto(ComplaintView complaint, ComplaintFields fields) {
+        return new ComplaintResponseDto(
+                fields.includes("id") ? complaint.id() : null,
+                fields.includes("productId") ? complaint.productId() : null,
+                fields.includes(ComplaintFields.CONTENT) ? complaint.content() : null,
+                fields.includes("creationDate") ? complaint.creationDate() : null,
+                fields.includes("complainant") ? complaint.complainant() : null,
+                fields.includes("country") ? complaint.country() : null,
+                fields.includes("claimCounter") ? complaint.claimCounter() : null,
+                fields.includes("version") ? complaint.version() : null
         );
     }
 
@@ -0,0 +1,35 @@
+package pl.empik.complaintmanager.service;
+
+import pl.empik.complaintmanager.domain.ComplaintView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+record ComplaintCursor(LocalDateTime creationDate, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static ComplaintCursor of(ComplaintView complaint) {
+        return new ComplaintCursor(complaint.creationDate(), complaint.id());
+    }
+
+    static ComplaintCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new ComplaintCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String value = creationDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
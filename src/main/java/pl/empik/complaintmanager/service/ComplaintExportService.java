@@ -0,0 +1,191 @@
+package pl.empik.complaintmanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintFilter;
+import pl.empik.complaintmanager.domain.ComplaintJdbcRepository;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.domain.ComplaintView;
+import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ComplaintExportService {
+
+    private static final String CSV_HEADER = "id,productId,content,creationDate,complainant,country,claimCounter";
+    private static final int SHARD_PAGE_SIZE = 1000;
+
+    private final ComplaintJdbcRepository complaintJdbcRepository;
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintShards complaintShards;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(Long productId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out)
+            throws IOException {
+        var mapper = new ComplaintConverter();
+        if (productId == null && complaintShards.isSharded()) {
+            Iterator<ComplaintView> complaints = mergeShards(new ComplaintFilter(null, null, from, to));
+            write(new Iterator<ComplaintResponseDto>() {
+
+                @Override
+                public boolean hasNext() {
+                    return complaints.hasNext();
+                }
+
+                @Override
+                public ComplaintResponseDto next() {
+                    return mapper.toResponseDto(complaints.next());
+                }
+
+            }, format, out);
+            return;
+        }
+        try (Stream<Complaint> complaints = complaintShards.route(complaintShards.shardOf(productId),
+                () -> complaintJdbcRepository.streamAll(productId, from, to))) {
+            write(complaints.map(mapper::toResponseDto).iterator(), format, out);
+        }
+    }
+
+    private void write(Iterator<ComplaintResponseDto> rows, ExportFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case NDJSON -> writeNdjson(rows, out);
+            case CSV -> writeCsv(rows, out);
+        }
+    }
+
+    private Iterator<ComplaintView> mergeShards(ComplaintFilter filter) {
+        PriorityQueue<ShardCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing(ShardCursor::peek, ComplaintService.KEYSET_ORDER));
+        for (int shard = 0; shard < complaintShards.shardCount(); shard++) {
+            ShardCursor cursor = new ShardCursor(shard, filter);
+            if (cursor.hasNext()) {
+                cursors.add(cursor);
+            }
+        }
+        return new Iterator<ComplaintView>() {
+
+            @Override
+            public boolean hasNext() {
+                return !cursors.isEmpty();
+            }
+
+            @Override
+            public ComplaintView next() {
+                ShardCursor cursor = cursors.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                ComplaintView complaint = cursor.next();
+                if (cursor.hasNext()) {
+                    cursors.add(cursor);
+                }
+                return complaint;
+            }
+
+        };
+    }
+
+    private void writeNdjson(Iterator<ComplaintResponseDto> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ComplaintResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                writer.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<ComplaintResponseDto> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            ComplaintResponseDto row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getProductId()));
+            writer.write(',');
+            writer.write(csvField(row.getContent()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getCreationDate()));
+            writer.write(',');
+            writer.write(csvField(row.getComplainant()));
+            writer.write(',');
+            writer.write(csvField(row.getCountry()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getClaimCounter()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private final class ShardCursor {
+
+        private final int shard;
+        private final ComplaintFilter filter;
+        private final Deque<ComplaintView> page = new ArrayDeque<>();
+        private ComplaintView last;
+        private boolean exhausted;
+
+        private ShardCursor(int shard, ComplaintFilter filter) {
+            this.shard = shard;
+            this.filter = filter;
+        }
+
+        private boolean hasNext() {
+            if (page.isEmpty() && !exhausted) {
+                page.addAll(complaintShards.read(shard, () -> complaintRepository.findAfter(filter,
+                        last != null ? last.creationDate() : null, last != null ? last.id() : null,
+                        SHARD_PAGE_SIZE, true)));
+                exhausted = page.size() < SHARD_PAGE_SIZE;
+            }
+            return !page.isEmpty();
+        }
+
+        private ComplaintView peek() {
+            return page.getFirst();
+        }
+
+        private ComplaintView next() {
+            last = page.removeFirst();
+            return last;
+        }
+
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,36 @@
+package pl.empik.complaintmanager.service;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+record ComplaintFields(Set<String> names) {
+
+    static final String CONTENT = "content";
+
+    private static final Set<String> ALL = Set.of(
+            "id", "productId", CONTENT, "creationDate", "complainant", "country", "claimCounter", "version");
+
+    static final ComplaintFields ALL_FIELDS = new ComplaintFields(ALL);
+
+    static ComplaintFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL_FIELDS;
+        }
+        Set<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        for (String name : names) {
+            if (!ALL.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+        }
+        return new ComplaintFields(names);
+    }
+
+    boolean includes(String name) {
+        return names.contains(name);
+    }
+
+}
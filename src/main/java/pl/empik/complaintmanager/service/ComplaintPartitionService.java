@@ -0,0 +1,97 @@
+package pl.empik.complaintmanager.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintmanager.config.ComplaintPartitionConfig;
+import pl.empik.complaintmanager.domain.ComplaintPartitionRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComplaintPartitionService {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'complaints_p'yyyyMM");
+    private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+
+    private final ComplaintPartitionRepository complaintPartitionRepository;
+    private final ComplaintPartitionConfig config;
+    private final ComplaintShards complaintShards;
+
+    @Scheduled(fixedDelayString = "${complaints.partitions.maintenanceInterval}")
+    public synchronized void maintain() {
+        complaintShards.forEachShard(shard -> {
+            createFuturePartitions(LocalDate.now());
+            archiveExpiredPartitions(LocalDate.now(), shard);
+        });
+    }
+
+    public void createFuturePartitions(LocalDate today) {
+        LocalDate month = today.withDayOfMonth(1);
+        for (int i = 0; i <= config.getFutureMonths(); i++) {
+            complaintPartitionRepository.createPartition(month.plusMonths(i));
+        }
+    }
+
+    public List<Path> archiveExpiredPartitions(LocalDate today) {
+        return archiveExpiredPartitions(today, 0);
+    }
+
+    List<Path> archiveExpiredPartitions(LocalDate today, int shard) {
+        if (config.getRetentionMonths() <= 0) {
+            return List.of();
+        }
+        if (config.getArchiveDirectory() == null || config.getArchiveDirectory().isBlank()) {
+            log.warn("Complaint retention is enabled but no archive directory is configured, skipping archival");
+            return List.of();
+        }
+        String oldestRetained = PARTITION_NAME.format(today.withDayOfMonth(1).minusMonths(config.getRetentionMonths()));
+        for (String partition : complaintPartitionRepository.findAttachedPartitions()) {
+            if (partition.compareTo(oldestRetained) < 0) {
+                complaintPartitionRepository.detachPartition(partition);
+                log.info("Detached expired complaint partition {}", partition);
+            }
+        }
+
+        List<Path> archives = new ArrayList<>();
+        for (String partition : complaintPartitionRepository.findDetachedPartitions()) {
+            archives.add(archive(partition, shard));
+        }
+        return archives;
+    }
+
+    private Path archive(String partition, int shard) {
+        try {
+            Path directory = Files.createDirectories(Path.of(config.getArchiveDirectory()));
+            String name = shard == 0 ? partition : partition + "_shard" + shard;
+            Path archive = directory.resolve(name + ".csv.gz");
+            Path temporary = directory.resolve(name + ".csv.gz.tmp");
+            long rows;
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), ARCHIVE_BUFFER_SIZE), ARCHIVE_BUFFER_SIZE)) {
+                rows = complaintPartitionRepository.archive(partition, out);
+            }
+            Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complaintPartitionRepository.drop(partition);
+            log.info("Archived complaint partition {} ({} rows) to {}", partition, rows, archive);
+            return archive;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package pl.empik.complaintmanager.service;
+
+import pl.empik.complaintmanager.domain.ComplaintSearchRepository.ComplaintMatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+record ComplaintSearchCursor(float rank, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    static ComplaintSearchCursor of(ComplaintMatch match) {
+        return new ComplaintSearchCursor(match.rank(), match.complaint().id());
+    }
+
+    static ComplaintSearchCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new ComplaintSearchCursor(
+                    Float.parseFloat(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String value = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,74 @@
+package pl.empik.complaintmanager.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.empik.complaintmanager.domain.ComplaintFilter;
+import pl.empik.complaintmanager.domain.ComplaintSearchRepository;
+import pl.empik.complaintmanager.domain.ComplaintSearchRepository.ComplaintMatch;
+import pl.empik.complaintmanager.web.model.ComplaintSearchResultDto;
+import pl.empik.complaintmanager.web.model.CursorPageDto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ComplaintSearchService {
+
+    private static final Comparator<ComplaintMatch> RANK_ORDER = Comparator.comparingDouble(ComplaintMatch::rank)
+            .thenComparing(match -> match.complaint().id())
+            .reversed();
+
+    private final ComplaintSearchRepository complaintSearchRepository;
+    private final ClaimAccumulator claimAccumulator;
+    private final ComplaintShards complaintShards;
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<ComplaintSearchResultDto> search(String query, Long productId, String complainant,
+                                                          LocalDateTime from, LocalDateTime to, String fields,
+                                                          String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        var mapper = new ComplaintConverter();
+        ComplaintFields selection = ComplaintFields.parse(fields);
+        ComplaintFilter filter = new ComplaintFilter(productId, complainant, from, to);
+        ComplaintSearchCursor after = cursor == null || cursor.isEmpty() ? null : ComplaintSearchCursor.decode(cursor);
+        List<ComplaintMatch> matches = claimAccumulator.read(() -> search(query, filter, after, size + 1,
+                        selection.includes(ComplaintFields.CONTENT))
+                .stream()
+                .map(match -> new ComplaintMatch(claimAccumulator.merge(match.complaint()), match.rank(), match.highlight()))
+                .toList());
+
+        boolean hasNext = matches.size() > size;
+        List<ComplaintMatch> page = hasNext ? matches.subList(0, size) : matches;
+        String nextCursor = hasNext ? ComplaintSearchCursor.of(page.getLast()).encode() : null;
+
+        return new CursorPageDto<>(page.stream()
+                .map(match -> new ComplaintSearchResultDto(mapper.toResponseDto(match.complaint(), selection),
+                        match.highlight()))
+                .toList(), nextCursor, hasNext);
+    }
+
+    private List<ComplaintMatch> search(String query, ComplaintFilter filter, ComplaintSearchCursor after, int limit,
+                                        boolean withContent) {
+        Float rank = after != null ? after.rank() : null;
+        Long id = after != null ? after.id() : null;
+        if (filter.productId() != null || !complaintShards.isSharded()) {
+            return complaintShards.read(complaintShards.shardOf(filter.productId()),
+                    () -> complaintSearchRepository.search(query, filter, rank, id, limit, withContent));
+        }
+        return complaintShards.readAll(shard -> complaintSearchRepository.search(query, filter, rank, id, limit, withContent))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(RANK_ORDER)
+                .limit(limit)
+                .toList();
+    }
+
+}
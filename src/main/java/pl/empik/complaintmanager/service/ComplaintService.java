@@ -1,79 +1,255 @@
 package pl.empik.complaintmanager.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
 import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintFilter;
 import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.domain.ComplaintView;
 import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
 import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
+import pl.empik.complaintmanager.web.model.CursorPageDto;
 import pl.empik.complaintmanager.web.model.UpdateComplaintRequestDto;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class ComplaintService {
 
+    public static final String COMPLAINTS_CACHE = "complaints";
+    static final String CLAIMS_COUNTER = "complaints.claims";
+    static final int MAX_CLAIM_ATTEMPTS = 3;
+    static final Comparator<ComplaintView> KEYSET_ORDER =
+            Comparator.comparing(ComplaintView::creationDate).thenComparing(ComplaintView::id);
+
     private final ComplaintRepository complaintRepository;
     private final GeoLocationService geoLocationService;
+    private final GeoLocationConfig geoLocationConfig;
+    private final MeterRegistry meterRegistry;
+    private final ClaimAccumulator claimAccumulator;
+    private final ComplaintShards complaintShards;
+    private final CacheManager cacheManager;
 
-    @Transactional
     public ComplaintResponseDto addComplaint(ComplaintRequestDto complaintRequestDto, String ipAddress) {
-        String country = geoLocationService.getCountryFromIp(ipAddress);
-        Optional<Complaint> existingComplaint = complaintRepository.findByProductIdAndComplainant(
-                complaintRequestDto.getProductId(), complaintRequestDto.getComplainant());
-
         var mapper = new ComplaintConverter();
+        Optional<Long> bufferedClaim = claimAccumulator.claim(complaintRequestDto.getProductId(),
+                complaintRequestDto.getComplainant());
+        if (bufferedClaim.isPresent()) {
+            ComplaintView complaint = findComplaint(bufferedClaim.get())
+                    .orElseThrow(() -> new RuntimeException("Complaint not found"));
+            evictCachedComplaint(complaint.id());
+            countClaim(complaint.claimCounter());
+            return mapper.toResponseDto(complaint);
+        }
+        int shard = complaintShards.shardOf(complaintRequestDto.getProductId());
+        Optional<Complaint> existingComplaint = retryOnConflict(() -> complaintShards.write(shard,
+                () -> complaintRepository.incrementClaimCounter(complaintRequestDto.getProductId(),
+                        complaintRequestDto.getComplainant())));
         if (existingComplaint.isPresent()) {
-            Complaint updatedComplaint = existingComplaint.get();
-            updatedComplaint.incrementClaimCounter();
-            return mapper.toResponseDto(complaintRepository.save(updatedComplaint));
-        } else {
-            Complaint newComplaint = new Complaint();
-            newComplaint.setProductId(complaintRequestDto.getProductId());
-            newComplaint.setContent(complaintRequestDto.getContent());
-            newComplaint.setComplainant(complaintRequestDto.getComplainant());
-            newComplaint.setCountry(country);
-            newComplaint.setCreationDate(LocalDateTime.now());
-            newComplaint.setClaimCounter(1);
-            return mapper.toResponseDto(complaintRepository.save(newComplaint));
+            claimAccumulator.register(existingComplaint.get());
+            countClaim(existingComplaint.get().getClaimCounter());
+            return cacheComplaint(mapper.toResponseDto(existingComplaint.get()));
         }
+
+        String country = geoLocationConfig.getEnrichment().isAsync()
+                ? geoLocationService.findLocalCountry(ipAddress).orElse(Complaint.UNKNOWN_COUNTRY)
+                : resolveCountry(ipAddress);
+        Complaint complaint = retryOnConflict(() -> complaintShards.write(shard,
+                () -> complaintRepository.insertOrIncrementClaimCounter(
+                        complaintRequestDto.getProductId(),
+                        complaintRequestDto.getContent(),
+                        LocalDateTime.now(),
+                        complaintRequestDto.getComplainant(),
+                        country,
+                        ipAddress,
+                        Complaint.UNKNOWN_COUNTRY)));
+        claimAccumulator.register(complaint);
+        countClaim(complaint.getClaimCounter());
+        return cacheComplaint(mapper.toResponseDto(complaint));
     }
 
-    @Transactional
+    @CachePut(cacheNames = COMPLAINTS_CACHE, key = "#id")
     public ComplaintResponseDto updateComplaintContent(Long id, UpdateComplaintRequestDto updateComplaintRequestDto) {
-        Complaint complaint = complaintRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Complaint not found"));
-        complaint.setContent(updateComplaintRequestDto.getContent());
-        Complaint saved = complaintRepository.save(complaint);
+        Long expectedVersion = updateComplaintRequestDto.getVersion();
+        if (expectedVersion == null) {
+            throw new IllegalArgumentException("Version must be provided");
+        }
+        Complaint complaint = complaintShards.write(complaintShards.shardOfId(id), () -> {
+            Optional<Complaint> updated =
+                    complaintRepository.updateContentIfVersion(id, updateComplaintRequestDto.getContent(), expectedVersion);
+            return updated.orElseThrow(() -> complaintRepository.existsById(id)
+                    ? new OptimisticLockingFailureException("Complaint was modified concurrently")
+                    : new RuntimeException("Complaint not found"));
+        });
 
-        return new ComplaintConverter().toResponseDto(saved);
+        return new ComplaintConverter().toResponseDto(complaint);
     }
 
-    public Page<ComplaintResponseDto> getAllComplaints(Long productId, String complainant, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<ComplaintResponseDto> getAllComplaints(Long productId, String complainant, LocalDateTime from,
+                                                       LocalDateTime to, String fields, Pageable pageable) {
         var mapper = new ComplaintConverter();
-        Page<Complaint> complaints;
-        if (productId != null && complainant != null) {
-            complaints = complaintRepository.findByProductIdAndComplainantContainingIgnoreCase(productId, complainant, pageable);
-        } else if (productId != null) {
-            complaints = complaintRepository.findByProductId(productId, pageable);
-        } else if (complainant != null) {
-            complaints = complaintRepository.findByComplainantContainingIgnoreCase(complainant, pageable);
-        } else {
-            complaints = complaintRepository.findAll(pageable);
+        ComplaintFields selection = ComplaintFields.parse(fields);
+        ComplaintFilter filter = new ComplaintFilter(productId, complainant, from, to);
+        boolean withContent = selection.includes(ComplaintFields.CONTENT);
+        return claimAccumulator.read(() -> findPage(filter, withContent, pageable).map(claimAccumulator::merge))
+                .map(complaint -> mapper.toResponseDto(complaint, selection));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<ComplaintResponseDto> getComplaintsAfter(Long productId, String complainant, LocalDateTime from,
+                                                                  LocalDateTime to, String fields, String cursor,
+                                                                  int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
         }
+        var mapper = new ComplaintConverter();
+        ComplaintFields selection = ComplaintFields.parse(fields);
+        ComplaintFilter filter = new ComplaintFilter(productId, complainant, from, to);
+        ComplaintCursor after = cursor == null || cursor.isEmpty() ? null : ComplaintCursor.decode(cursor);
+        List<ComplaintView> complaints = claimAccumulator.read(() -> findAfter(filter, after, size + 1,
+                        selection.includes(ComplaintFields.CONTENT))
+                .stream()
+                .map(claimAccumulator::merge)
+                .toList());
+
+        boolean hasNext = complaints.size() > size;
+        List<ComplaintView> page = hasNext ? complaints.subList(0, size) : complaints;
+        String nextCursor = hasNext ? ComplaintCursor.of(page.getLast()).encode() : null;
 
-        return complaints.map(mapper::toResponseDto);
+        return new CursorPageDto<>(page.stream().map(complaint -> mapper.toResponseDto(complaint, selection)).toList(),
+                nextCursor, hasNext);
     }
 
+    @Transactional
+    @Cacheable(cacheNames = COMPLAINTS_CACHE, key = "#id")
     public ComplaintResponseDto getComplaintById(Long id) {
-        return complaintRepository.findById(id)
+        return findComplaint(id)
                 .map(complaint -> new ComplaintConverter().toResponseDto(complaint))
                 .orElseThrow(() -> new RuntimeException("Complaint not found"));
     }
 
+    private Page<ComplaintView> findPage(ComplaintFilter filter, boolean withContent, Pageable pageable) {
+        if (filter.productId() != null || !complaintShards.isSharded()) {
+            return complaintShards.read(complaintShards.shardOf(filter.productId()),
+                    () -> complaintRepository.findPage(filter, withContent, pageable));
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort().and(Sort.by("id")) : Sort.by("creationDate", "id");
+        Comparator<ComplaintView> order = comparator(sort);
+        Pageable shardPage = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        List<Page<ComplaintView>> pages = complaintShards.readAll(
+                shard -> complaintRepository.findPage(filter, withContent, shardPage));
+        List<ComplaintView> merged = pages.stream()
+                .flatMap(page -> page.getContent().stream())
+                .sorted(order)
+                .skip(pageable.isPaged() ? pageable.getOffset() : 0)
+                .limit(pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE)
+                .toList();
+        return new PageImpl<>(merged, pageable, pages.stream().mapToLong(Page::getTotalElements).sum());
+    }
+
+    private List<ComplaintView> findAfter(ComplaintFilter filter, ComplaintCursor after, int limit, boolean withContent) {
+        LocalDateTime creationDate = after != null ? after.creationDate() : null;
+        Long id = after != null ? after.id() : null;
+        if (filter.productId() != null || !complaintShards.isSharded()) {
+            return complaintShards.read(complaintShards.shardOf(filter.productId()),
+                    () -> complaintRepository.findAfter(filter, creationDate, id, limit, withContent));
+        }
+        return complaintShards.readAll(shard -> complaintRepository.findAfter(filter, creationDate, id, limit, withContent))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(KEYSET_ORDER)
+                .limit(limit)
+                .toList();
+    }
+
+    private static Comparator<ComplaintView> comparator(Sort sort) {
+        Comparator<ComplaintView> result = (left, right) -> 0;
+        for (Sort.Order order : sort) {
+            result = result.thenComparing(comparator(order));
+        }
+        return result;
+    }
+
+    private static Comparator<ComplaintView> comparator(Sort.Order order) {
+        Comparator<String> strings = order.isIgnoreCase() ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder();
+        Comparator<ComplaintView> comparator = switch (order.getProperty()) {
+            case "id" -> Comparator.comparing(ComplaintView::id);
+            case "productId" -> Comparator.comparing(ComplaintView::productId);
+            case "content" -> Comparator.comparing(ComplaintView::content, Comparator.nullsLast(strings));
+            case "creationDate" -> Comparator.comparing(ComplaintView::creationDate);
+            case "complainant" -> Comparator.comparing(ComplaintView::complainant, strings);
+            case "country" -> Comparator.comparing(ComplaintView::country, strings);
+            case "claimCounter" -> Comparator.comparing(ComplaintView::claimCounter);
+            case "version" -> Comparator.comparing(ComplaintView::version);
+            default -> throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+        };
+        return order.isAscending() ? comparator : comparator.reversed();
+    }
+
+    private static <T> T retryOnConflict(Supplier<T> claim) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return claim.get();
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= MAX_CLAIM_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private String resolveCountry(String ipAddress) {
+        try {
+            return geoLocationService.getCountryFromIp(ipAddress);
+        } catch (CountryNotResolvedException ex) {
+            return Complaint.UNKNOWN_COUNTRY;
+        }
+    }
+
+    private Optional<ComplaintView> findComplaint(Long id) {
+        return claimAccumulator.read(() -> complaintShards.read(complaintShards.shardOfId(id),
+                () -> complaintRepository.findViewById(id)).map(claimAccumulator::merge));
+    }
+
+    private ComplaintResponseDto cacheComplaint(ComplaintResponseDto complaint) {
+        Cache cache = cacheManager.getCache(COMPLAINTS_CACHE);
+        if (cache != null) {
+            cache.put(complaint.getId(), complaint);
+        }
+        return complaint;
+    }
+
+    private void evictCachedComplaint(Long id) {
+        Cache cache = cacheManager.getCache(COMPLAINTS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    private void countClaim(int claimCounter) {
+        meterRegistry.counter(CLAIMS_COUNTER, "type", claimCounter > 1 ? "repeat" : "new").increment();
+    }
+
 }
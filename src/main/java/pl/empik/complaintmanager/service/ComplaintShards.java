@@ -0,0 +1,137 @@
+package pl.empik.complaintmanager.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.empik.complaintmanager.config.ShardRoutingDataSource;
+import pl.empik.complaintmanager.config.ShardingConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+@Component
+public class ComplaintShards {
+
+    static final int SEQUENCE_BITS = 12;
+    static final int SHARD_BITS = 10;
+    static final long LEGACY_ID_LIMIT = 1L << 40;
+
+    private final boolean sharded;
+    private final int shardCount;
+    private final NavigableMap<Long, Integer> productRanges = new TreeMap<>();
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService scatter = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("complaint-shard-", 0).factory());
+
+    public ComplaintShards(ShardingConfig config, PlatformTransactionManager transactionManager) {
+        this.sharded = config.isEnabled();
+        this.shardCount = sharded ? config.getShards().size() + 1 : 1;
+        if (shardCount > 1 << SHARD_BITS) {
+            throw new IllegalStateException("At most " + (1 << SHARD_BITS) + " complaint shards are supported");
+        }
+        if (sharded) {
+            for (ShardingConfig.ProductRange range : config.getProductRanges()) {
+                if (range.getShard() < 0 || range.getShard() >= shardCount) {
+                    throw new IllegalStateException("Product range starting at " + range.getFrom()
+                            + " is mapped to unknown shard " + range.getShard());
+                }
+                productRanges.put(range.getFrom(), range.getShard());
+            }
+        }
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    boolean isSharded() {
+        return sharded;
+    }
+
+    int shardCount() {
+        return shardCount;
+    }
+
+    int shardOf(Long productId) {
+        Map.Entry<Long, Integer> range = productId == null ? null : productRanges.floorEntry(productId);
+        return range != null ? range.getValue() : 0;
+    }
+
+    int shardOfId(Long id) {
+        if (!sharded || id == null || id < LEGACY_ID_LIMIT) {
+            return 0;
+        }
+        int shard = (int) ((id >>> SEQUENCE_BITS) & ((1 << SHARD_BITS) - 1));
+        return shard < shardCount ? shard : 0;
+    }
+
+    <T> T route(int shard, Supplier<T> work) {
+        return sharded ? ShardRoutingDataSource.onShard(shard, work) : work.get();
+    }
+
+    void route(int shard, Runnable work) {
+        route(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    <T> T write(int shard, Supplier<T> work) {
+        return sharded ? route(shard, () -> writeTransaction.execute(status -> work.get())) : work.get();
+    }
+
+    void write(int shard, Runnable work) {
+        write(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    <T> T read(int shard, Supplier<T> work) {
+        return sharded ? route(shard, () -> readTransaction.execute(status -> work.get())) : work.get();
+    }
+
+    <T> List<T> readAll(IntFunction<T> work) {
+        if (!sharded) {
+            return List.of(work.apply(0));
+        }
+        List<CompletableFuture<T>> results = IntStream.range(0, shardCount)
+                .mapToObj(shard -> CompletableFuture.supplyAsync(() -> read(shard, () -> work.apply(shard)), scatter))
+                .toList();
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            route(current, () -> work.accept(current));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatter.shutdownNow();
+    }
+
+}
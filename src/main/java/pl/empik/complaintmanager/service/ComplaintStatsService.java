@@ -0,0 +1,64 @@
+package pl.empik.complaintmanager.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintmanager.domain.ComplaintStatsRepository;
+import pl.empik.complaintmanager.domain.ComplaintStatsRepository.CountryStats;
+import pl.empik.complaintmanager.web.model.ComplaintStatsDto;
+import pl.empik.complaintmanager.web.model.CountryStatsDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComplaintStatsService {
+
+    private final ComplaintStatsRepository complaintStatsRepository;
+    private final ClaimAccumulator claimAccumulator;
+    private final ComplaintShards complaintShards;
+
+    public ComplaintStatsDto getStats(Long productId) {
+        List<CountryStats> countries = claimAccumulator.read(() -> complaintShards.read(
+                complaintShards.shardOf(productId),
+                () -> withPendingClaims(complaintStatsRepository.findByProductId(productId),
+                        claimAccumulator.pendingByComplaint(productId))));
+        return new ComplaintStatsDto(productId,
+                countries.stream().mapToLong(CountryStats::complaintCount).sum(),
+                countries.stream().mapToLong(CountryStats::claimCount).sum(),
+                countries.stream()
+                        .map(stats -> new CountryStatsDto(stats.country(), stats.complaintCount(), stats.claimCount()))
+                        .toList());
+    }
+
+    private List<CountryStats> withPendingClaims(List<CountryStats> countries, Map<Long, Long> pendingByComplaint) {
+        if (pendingByComplaint.isEmpty()) {
+            return countries;
+        }
+        Map<Long, String> complaintCountries = complaintStatsRepository.findCountries(pendingByComplaint.keySet());
+        Map<String, Long> pendingClaims = new HashMap<>();
+        pendingByComplaint.forEach((id, claims) -> {
+            String country = complaintCountries.get(id);
+            if (country != null) {
+                pendingClaims.merge(country, claims, Long::sum);
+            }
+        });
+        return countries.stream()
+                .map(stats -> new CountryStats(stats.country(), stats.complaintCount(),
+                        stats.claimCount() + pendingClaims.getOrDefault(stats.country(), 0L)))
+                .toList();
+    }
+
+    public int rebuildStats() {
+        int rows = 0;
+        for (int shard = 0; shard < complaintShards.shardCount(); shard++) {
+            rows += complaintShards.write(shard, complaintStatsRepository::rebuild);
+        }
+        log.info("Rebuilt complaint statistics: {} product and country rows", rows);
+        return rows;
+    }
+
+}
@@ -0,0 +1,143 @@
+package pl.empik.complaintmanager.service;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.CountryEnrichmentRepository;
+import pl.empik.complaintmanager.domain.PendingCountry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class CountryEnrichmentService {
+
+    private final CountryEnrichmentRepository countryEnrichmentRepository;
+    private final GeoLocationService geoLocationService;
+    private final RateLimiter rateLimiter;
+    private final CacheManager cacheManager;
+    private final ComplaintShards complaintShards;
+    private final GeoLocationConfig.Enrichment config;
+    private final ExecutorService workers;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public CountryEnrichmentService(CountryEnrichmentRepository countryEnrichmentRepository,
+                                    GeoLocationService geoLocationService, RateLimiter geoLocationEnrichmentRateLimiter,
+                                    CacheManager cacheManager, ComplaintShards complaintShards, GeoLocationConfig config,
+                                    MeterRegistry meterRegistry) {
+        this.countryEnrichmentRepository = countryEnrichmentRepository;
+        this.geoLocationService = geoLocationService;
+        this.rateLimiter = geoLocationEnrichmentRateLimiter;
+        this.cacheManager = cacheManager;
+        this.complaintShards = complaintShards;
+        this.config = config.getEnrichment();
+        this.workers = Executors.newFixedThreadPool(this.config.getWorkers(),
+                Thread.ofPlatform().name("country-enrichment-", 0).factory());
+        Gauge.builder("country.enrichment.queue.depth", queueDepth, AtomicLong::get)
+                .description("Complaints waiting for country enrichment")
+                .register(meterRegistry);
+        TimeGauge.builder("country.enrichment.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest complaint waiting for country enrichment")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${geolocation.enrichment.interval}")
+    public void enrichPending() {
+        complaintShards.forEachShard(this::enrichShard);
+        refreshMetrics();
+    }
+
+    private void enrichShard(int shard) {
+        List<PendingCountry> claimed = countryEnrichmentRepository.claimDue(config.getBatchSize(), config.getLease());
+        Map<String, List<PendingCountry>> byIpAddress = claimed.stream()
+                .collect(Collectors.groupingBy(PendingCountry::ipAddress));
+        CompletableFuture.allOf(byIpAddress.entrySet().stream()
+                        .map(pending -> CompletableFuture.runAsync(() -> complaintShards.route(shard,
+                                () -> enrich(pending.getKey(), pending.getValue())), workers))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void enrich(String ipAddress, List<PendingCountry> pending) {
+        List<Long> ids = pending.stream().map(PendingCountry::id).toList();
+        if (!rateLimiter.acquirePermission()) {
+            retryLater(pending);
+            return;
+        }
+        String country;
+        try {
+            country = geoLocationService.getCountryFromIp(ipAddress);
+        } catch (RuntimeException ex) {
+            log.warn("Giving up country enrichment for IP {}: {}", ipAddress, ex.getMessage());
+            countryEnrichmentRepository.delete(ids);
+            return;
+        }
+        if (Complaint.UNKNOWN_COUNTRY.equals(country)) {
+            retryLater(pending);
+            return;
+        }
+        countryEnrichmentRepository.resolve(ids, country, Complaint.UNKNOWN_COUNTRY)
+                .forEach(this::evictCachedComplaint);
+    }
+
+    private void retryLater(List<PendingCountry> pending) {
+        for (PendingCountry complaint : pending) {
+            if (complaint.attempts() >= config.getMaxAttempts()) {
+                log.warn("Giving up country enrichment for complaint of product {} after {} attempts",
+                        complaint.productId(), complaint.attempts());
+                countryEnrichmentRepository.delete(List.of(complaint.id()));
+            } else {
+                countryEnrichmentRepository.retryLater(complaint.id(), backoff(complaint.attempts()));
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = config.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(config.getMaxBackoff()) > 0 ? config.getMaxBackoff() : backoff;
+    }
+
+    private void refreshMetrics() {
+        long depth = 0;
+        long lag = 0;
+        for (int shard = 0; shard < complaintShards.shardCount(); shard++) {
+            CountryEnrichmentRepository.OutboxStatistics statistics =
+                    complaintShards.route(shard, countryEnrichmentRepository::statistics);
+            depth += statistics.depth();
+            lag = Math.max(lag, statistics.lag().toMillis());
+        }
+        queueDepth.set(depth);
+        lagMillis.set(lag);
+    }
+
+    private void evictCachedComplaint(Long id) {
+        Cache cache = cacheManager.getCache(ComplaintService.COMPLAINTS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+package pl.empik.complaintmanager.service;
+
+public class CountryNotResolvedException extends RuntimeException {
+
+    CountryNotResolvedException(String message) {
+        super(message);
+    }
+
+}
@@ -1,21 +1,101 @@
 package pl.empik.complaintmanager.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.domain.Complaint;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class GeoLocationService {
 
+    static final String LOOKUP_TIMER = "geolocation.lookups";
+
     private final RestClient restClient;
+    private final GeoLocationConfig config;
+    private final AsyncCache<String, Optional<String>> geoLocationCache;
+    private final CircuitBreaker geoLocationCircuitBreaker;
+    private final Bulkhead geoLocationBulkhead;
+    private final IpRangeDatabase ipRangeDatabase;
+    private final MeterRegistry meterRegistry;
 
     public String getCountryFromIp(String ipAddress) {
-        return restClient.get()
-                .uri("/{ipAddress}/country", ipAddress)
-                .retrieve()
-                .toEntity(String.class)
-                .getBody();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String localCountry = ipRangeDatabase.findCountry(ipAddress);
+        if (localCountry != null) {
+            sample.stop(lookupTimer("local"));
+            return localCountry;
+        }
+
+        String key = IpAddresses.prefixKey(ipAddress,
+                config.getCache().getIpv4PrefixLength(), config.getCache().getIpv6PrefixLength());
+
+        CompletableFuture<Optional<String>> lookup = new CompletableFuture<>();
+        CompletableFuture<Optional<String>> country = geoLocationCache.get(key, (ignored, executor) -> lookup);
+        boolean cached = country != lookup;
+        if (!cached) {
+            try {
+                lookup.complete(fetchCountry(ipAddress));
+            } catch (RuntimeException ex) {
+                lookup.completeExceptionally(ex);
+            }
+        }
+
+        Optional<String> resolved;
+        try {
+            resolved = country.join();
+        } catch (CompletionException ex) {
+            sample.stop(lookupTimer("unavailable"));
+            log.warn("Geolocation unavailable for IP {}: {}", ipAddress, ex.getCause().getMessage());
+            return Complaint.UNKNOWN_COUNTRY;
+        }
+        sample.stop(lookupTimer(resolved.isEmpty() ? "unresolved" : cached ? "cached" : "resolved"));
+        return resolved.orElseThrow(() -> new CountryNotResolvedException("Country not resolved for IP " + ipAddress));
+    }
+
+    public Optional<String> findLocalCountry(String ipAddress) {
+        return Optional.ofNullable(ipRangeDatabase.findCountry(ipAddress));
+    }
+
+    private Timer lookupTimer(String outcome) {
+        return Timer.builder(LOOKUP_TIMER)
+                .description("Time to resolve a country from an IP address")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Optional<String> fetchCountry(String ipAddress) {
+        return Bulkhead.decorateSupplier(geoLocationBulkhead,
+                CircuitBreaker.decorateSupplier(geoLocationCircuitBreaker, () -> requestCountry(ipAddress))).get();
+    }
+
+    private Optional<String> requestCountry(String ipAddress) {
+        try {
+            String country = restClient.get()
+                    .uri("/{ipAddress}/country", ipAddress)
+                    .retrieve()
+                    .toEntity(String.class)
+                    .getBody();
+            return Optional.ofNullable(country).map(String::trim).filter(value -> !value.isEmpty());
+        } catch (HttpClientErrorException.TooManyRequests ex) {
+            throw ex;
+        } catch (HttpClientErrorException ex) {
+            log.warn("Geolocation lookup rejected for IP {}: {}", ipAddress, ex.getMessage());
+            return Optional.empty();
+        }
     }
 
 }
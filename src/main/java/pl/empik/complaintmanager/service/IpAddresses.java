@@ -0,0 +1,168 @@
+package pl.empik.complaintmanager.service;
+
+final class IpAddresses {
+
+    private IpAddresses() {
+    }
+
+    static String prefixKey(String address, int ipv4PrefixLength, int ipv6PrefixLength) {
+        String literal = normalize(address);
+        long ipv4 = parseIpv4(literal);
+        if (ipv4 >= 0) {
+            int bits = Math.clamp(ipv4PrefixLength, 0, 32);
+            return "4:" + Long.toHexString(ipv4 & ipv4Mask(bits)) + "/" + bits;
+        }
+        long[] ipv6 = new long[2];
+        if (parseIpv6(literal, ipv6)) {
+            int bits = Math.clamp(ipv6PrefixLength, 0, 128);
+            long high = ipv6[0] & topBits(Math.min(bits, 64));
+            long low = ipv6[1] & topBits(Math.max(bits - 64, 0));
+            return "6:" + Long.toHexString(high) + ":" + Long.toHexString(low) + "/" + bits;
+        }
+        return literal;
+    }
+
+    static String normalize(String address) {
+        String literal = address.trim();
+        if (literal.startsWith("[") && literal.endsWith("]")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        int zone = literal.indexOf('%');
+        return zone >= 0 ? literal.substring(0, zone) : literal;
+    }
+
+    static long parseIpv4(String address) {
+        return parseIpv4(address, 0, address.length());
+    }
+
+    static boolean parseIpv6(String address, long[] result) {
+        int length = address.length();
+        int doubleColon = address.indexOf("::");
+        if (address.indexOf(':') < 0 || doubleColon >= 0 && address.indexOf("::", doubleColon + 1) >= 0) {
+            return false;
+        }
+        int zeroGroups = doubleColon < 0 ? 0 : 8 - countGroups(address);
+        if (zeroGroups < 0 || doubleColon >= 0 && zeroGroups == 0) {
+            return false;
+        }
+        long high = 0;
+        long low = 0;
+        int groups = 0;
+        int start = 0;
+        while (true) {
+            if (start == doubleColon) {
+                for (int i = 0; i < zeroGroups; i++) {
+                    high = high << 16 | low >>> 48;
+                    low <<= 16;
+                }
+                groups += zeroGroups;
+                start += 2;
+                if (start == length) {
+                    break;
+                }
+            }
+            int end = address.indexOf(':', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end == length && address.indexOf('.', start) >= 0) {
+                long ipv4 = parseIpv4(address, start, length);
+                if (ipv4 < 0 || groups > 6) {
+                    return false;
+                }
+                high = high << 32 | low >>> 32;
+                low = low << 32 | ipv4;
+                groups += 2;
+                break;
+            }
+            int group = parseHexGroup(address, start, end);
+            if (group < 0 || groups == 8) {
+                return false;
+            }
+            high = high << 16 | low >>> 48;
+            low = low << 16 | group;
+            groups++;
+            if (end == length) {
+                break;
+            }
+            start = end == doubleColon ? end : end + 1;
+        }
+        if (groups != 8) {
+            return false;
+        }
+        result[0] = high;
+        result[1] = low;
+        return true;
+    }
+
+    private static int countGroups(String address) {
+        int length = address.length();
+        int groups = 0;
+        int start = 0;
+        while (start < length) {
+            int end = address.indexOf(':', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                groups += end == length && address.indexOf('.', start) >= 0 ? 2 : 1;
+            }
+            start = end + 1;
+        }
+        return groups;
+    }
+
+    private static int parseHexGroup(String address, int from, int to) {
+        if (to - from < 1 || to - from > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(address.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static long parseIpv4(String address, int from, int to) {
+        long result = 0;
+        int octets = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && address.charAt(i) != '.') {
+                continue;
+            }
+            int length = i - start;
+            if (length < 1 || length > 3 || octets == 4) {
+                return -1;
+            }
+            int octet = 0;
+            for (int j = start; j < i; j++) {
+                char c = address.charAt(j);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                octet = octet * 10 + (c - '0');
+            }
+            if (octet > 255) {
+                return -1;
+            }
+            result = result << 8 | octet;
+            octets++;
+            start = i + 1;
+        }
+        return octets == 4 ? result : -1;
+    }
+
+    static long ipv4Mask(int bits) {
+        return bits == 0 ? 0L : 0xFFFFFFFFL << (32 - bits) & 0xFFFFFFFFL;
+    }
+
+    static long topBits(int bits) {
+        return bits == 0 ? 0L : -1L << (64 - bits);
+    }
+
+}
@@ -0,0 +1,57 @@
+package pl.empik.complaintmanager.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+@Slf4j
+@Service
+public class IpRangeDatabase {
+
+    private final String path;
+    private volatile IpRangeIndex index = IpRangeIndex.EMPTY;
+    private FileTime loadedVersion;
+
+    public IpRangeDatabase(GeoLocationConfig config) {
+        this.path = config.getDatabase().getPath();
+        reload();
+    }
+
+    public String findCountry(String ipAddress) {
+        return index.find(ipAddress);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Scheduled(fixedDelayString = "${geolocation.database.reloadInterval}")
+    public synchronized void reload() {
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        Path file = Path.of(path);
+        try {
+            FileTime version = Files.getLastModifiedTime(file);
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                IpRangeIndex loaded = IpRangeIndex.load(reader);
+                index = loaded;
+                loadedVersion = version;
+                log.info("Loaded {} IP ranges from {}", loaded.size(), file);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            log.error("Could not load IP ranges from {}, keeping {} ranges: {}", file, index.size(), ex.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,216 @@
+package pl.empik.complaintmanager.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+final class IpRangeIndex {
+
+    static final IpRangeIndex EMPTY = new IpRangeIndex(new String[0], List.of(), List.of());
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF_0000_0000L;
+    private static final int INVALID = 0;
+    private static final int IPV4 = 4;
+    private static final int IPV6 = 6;
+
+    private final String[] countries;
+    private final int[] ipv4Starts;
+    private final int[] ipv4Ends;
+    private final short[] ipv4Countries;
+    private final long[] ipv6StartHighs;
+    private final long[] ipv6StartLows;
+    private final long[] ipv6EndHighs;
+    private final long[] ipv6EndLows;
+    private final short[] ipv6Countries;
+
+    private IpRangeIndex(String[] countries, List<Range> ipv4Ranges, List<Range> ipv6Ranges) {
+        this.countries = countries;
+        this.ipv4Starts = new int[ipv4Ranges.size()];
+        this.ipv4Ends = new int[ipv4Ranges.size()];
+        this.ipv4Countries = new short[ipv4Ranges.size()];
+        for (int i = 0; i < ipv4Ranges.size(); i++) {
+            Range range = ipv4Ranges.get(i);
+            ipv4Starts[i] = (int) range.startLow();
+            ipv4Ends[i] = (int) range.endLow();
+            ipv4Countries[i] = range.country();
+        }
+        this.ipv6StartHighs = new long[ipv6Ranges.size()];
+        this.ipv6StartLows = new long[ipv6Ranges.size()];
+        this.ipv6EndHighs = new long[ipv6Ranges.size()];
+        this.ipv6EndLows = new long[ipv6Ranges.size()];
+        this.ipv6Countries = new short[ipv6Ranges.size()];
+        for (int i = 0; i < ipv6Ranges.size(); i++) {
+            Range range = ipv6Ranges.get(i);
+            ipv6StartHighs[i] = range.startHigh();
+            ipv6StartLows[i] = range.startLow();
+            ipv6EndHighs[i] = range.endHigh();
+            ipv6EndLows[i] = range.endLow();
+            ipv6Countries[i] = range.country();
+        }
+    }
+
+    static IpRangeIndex load(BufferedReader reader) throws IOException {
+        Map<String, Short> countryIds = new LinkedHashMap<>();
+        List<Range> ipv4Ranges = new ArrayList<>();
+        List<Range> ipv6Ranges = new ArrayList<>();
+        long[] start = new long[2];
+        long[] end = new long[2];
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = unquote(fields[i].trim());
+            }
+            int family = INVALID;
+            String country = fields[fields.length - 1];
+            if (fields.length == 2 && fields[0].indexOf('/') > 0) {
+                family = parseNetwork(fields[0], start, end);
+            } else if (fields.length == 3) {
+                family = parseAddress(fields[0], start);
+                if (family != parseAddress(fields[1], end)) {
+                    family = INVALID;
+                }
+            }
+            if (family == INVALID || country.length() != 2) {
+                if (lineNumber == 1) {
+                    continue;
+                }
+                throw new IllegalArgumentException("Invalid IP range at line " + lineNumber);
+            }
+            if (compare(start[0], start[1], end[0], end[1]) > 0) {
+                throw new IllegalArgumentException("Range start after range end at line " + lineNumber);
+            }
+            short countryId = countryIds.computeIfAbsent(country.toUpperCase(Locale.ROOT), ignored -> (short) countryIds.size());
+            (family == IPV4 ? ipv4Ranges : ipv6Ranges).add(new Range(start[0], start[1], end[0], end[1], countryId));
+        }
+
+        return new IpRangeIndex(countryIds.keySet().toArray(String[]::new), sorted(ipv4Ranges), sorted(ipv6Ranges));
+    }
+
+    String find(String address) {
+        String literal = IpAddresses.normalize(address);
+        long ipv4 = IpAddresses.parseIpv4(literal);
+        if (ipv4 >= 0) {
+            return findIpv4((int) ipv4);
+        }
+        long[] ipv6 = new long[2];
+        if (!IpAddresses.parseIpv6(literal, ipv6)) {
+            return null;
+        }
+        if (ipv6[0] == 0 && (ipv6[1] & 0xFFFF_FFFF_0000_0000L) == IPV4_MAPPED_PREFIX) {
+            return findIpv4((int) ipv6[1]);
+        }
+        return findIpv6(ipv6[0], ipv6[1]);
+    }
+
+    String findIpv4(int address) {
+        int low = 0;
+        int high = ipv4Starts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (Integer.compareUnsigned(ipv4Starts[middle], address) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && Integer.compareUnsigned(address, ipv4Ends[high]) <= 0
+                ? countries[ipv4Countries[high] & 0xFFFF]
+                : null;
+    }
+
+    String findIpv6(long addressHigh, long addressLow) {
+        int low = 0;
+        int high = ipv6StartHighs.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compare(ipv6StartHighs[middle], ipv6StartLows[middle], addressHigh, addressLow) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && compare(addressHigh, addressLow, ipv6EndHighs[high], ipv6EndLows[high]) <= 0
+                ? countries[ipv6Countries[high] & 0xFFFF]
+                : null;
+    }
+
+    int size() {
+        return ipv4Starts.length + ipv6StartHighs.length;
+    }
+
+    private static int parseAddress(String address, long[] result) {
+        long ipv4 = IpAddresses.parseIpv4(address);
+        if (ipv4 >= 0) {
+            result[0] = 0;
+            result[1] = ipv4;
+            return IPV4;
+        }
+        return IpAddresses.parseIpv6(address, result) ? IPV6 : INVALID;
+    }
+
+    private static int parseNetwork(String network, long[] start, long[] end) {
+        int slash = network.indexOf('/');
+        int family = parseAddress(network.substring(0, slash), start);
+        int bits;
+        try {
+            bits = Integer.parseInt(network.substring(slash + 1));
+        } catch (NumberFormatException ex) {
+            return INVALID;
+        }
+        if (family == IPV4 && bits >= 0 && bits <= 32) {
+            long mask = IpAddresses.ipv4Mask(bits);
+            start[1] &= mask;
+            end[0] = 0;
+            end[1] = start[1] | ~mask & 0xFFFF_FFFFL;
+            return IPV4;
+        }
+        if (family == IPV6 && bits >= 0 && bits <= 128) {
+            long highMask = IpAddresses.topBits(Math.min(bits, 64));
+            long lowMask = IpAddresses.topBits(Math.max(bits - 64, 0));
+            start[0] &= highMask;
+            start[1] &= lowMask;
+            end[0] = start[0] | ~highMask;
+            end[1] = start[1] | ~lowMask;
+            return IPV6;
+        }
+        return INVALID;
+    }
+
+    private static List<Range> sorted(List<Range> ranges) {
+        ranges.sort(Comparator.comparing(Range::startHigh, Long::compareUnsigned)
+                .thenComparing(Range::startLow, Long::compareUnsigned));
+        for (int i = 1; i < ranges.size(); i++) {
+            Range previous = ranges.get(i - 1);
+            Range current = ranges.get(i);
+            if (compare(current.startHigh(), current.startLow(), previous.endHigh(), previous.endLow()) <= 0) {
+                throw new IllegalArgumentException("Overlapping IP ranges in dataset");
+            }
+        }
+        return ranges;
+    }
+
+    private static int compare(long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        return leftHigh != rightHigh ? Long.compareUnsigned(leftHigh, rightHigh) : Long.compareUnsigned(leftLow, rightLow);
+    }
+
+    private static String unquote(String field) {
+        return field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")
+                ? field.substring(1, field.length() - 1)
+                : field;
+    }
+
+    private record Range(long startHigh, long startLow, long endHigh, long endLow, short country) {
+    }
+
+}
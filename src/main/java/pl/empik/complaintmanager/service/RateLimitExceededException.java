@@ -0,0 +1,21 @@
+package pl.empik.complaintmanager.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    RateLimitExceededException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toNanos() + 999_999_999) / 1_000_000_000);
+    }
+
+}
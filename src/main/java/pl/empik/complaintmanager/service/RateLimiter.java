@@ -0,0 +1,138 @@
+package pl.empik.complaintmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintmanager.config.RateLimitConfig;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class RateLimiter {
+
+    static final String REJECTED_COUNTER = "complaints.rate.limited";
+    static final String IP = "ip";
+    static final String COMPLAINANT = "complainant";
+
+    private final RateLimitConfig config;
+    private final MeterRegistry meterRegistry;
+    private final Ticker ticker;
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    @Autowired
+    public RateLimiter(RateLimitConfig config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, Ticker.systemTicker());
+    }
+
+    RateLimiter(RateLimitConfig config, MeterRegistry meterRegistry, Ticker ticker) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxKeys())
+                .expireAfter(new IdleExpiry())
+                .ticker(ticker)
+                .build();
+    }
+
+    public void acquire(String endpoint, String ip, String complainant) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        RateLimitConfig.Endpoint limits = config.getEndpoints().get(endpoint);
+        if (limits == null) {
+            return;
+        }
+        long now = ticker.read();
+        TokenBucket ipBucket = bucket(endpoint, IP, ip, limits.getIp());
+        long ipWait = ipBucket == null ? 0 : ipBucket.tryAcquire(now);
+        if (ipWait > 0) {
+            throw rejected(endpoint, IP, ipWait);
+        }
+        TokenBucket complainantBucket = bucket(endpoint, COMPLAINANT, complainant, limits.getComplainant());
+        long complainantWait = complainantBucket == null ? 0 : complainantBucket.tryAcquire(now);
+        if (complainantWait > 0) {
+            if (ipBucket != null) {
+                ipBucket.refund();
+            }
+            throw rejected(endpoint, COMPLAINANT, complainantWait);
+        }
+    }
+
+    long trackedKeys() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private TokenBucket bucket(String endpoint, String type, String value, RateLimitConfig.Limit limit) {
+        if (limit == null || value == null) {
+            return null;
+        }
+        return buckets.get(new BucketKey(endpoint, type, value), key -> new TokenBucket(limit, ticker.read()));
+    }
+
+    private RateLimitExceededException rejected(String endpoint, String type, long waitNanos) {
+        meterRegistry.counter(REJECTED_COUNTER, "endpoint", endpoint, "key", type).increment();
+        return new RateLimitExceededException("Too many requests for this " + type, Duration.ofNanos(waitNanos));
+    }
+
+    private record BucketKey(String endpoint, String type, String value) {
+    }
+
+    private static final class TokenBucket {
+
+        private final long interval;
+        private final long burst;
+        private final AtomicLong nextFree;
+
+        private TokenBucket(RateLimitConfig.Limit limit, long now) {
+            this.interval = Math.max(1, limit.getPeriod().toNanos() / limit.getCapacity());
+            this.burst = interval * limit.getCapacity();
+            this.nextFree = new AtomicLong(now);
+        }
+
+        private long tryAcquire(long now) {
+            long current;
+            long next;
+            do {
+                current = nextFree.get();
+                next = Math.max(current, now) + interval;
+                long wait = next - now - burst;
+                if (wait > 0) {
+                    return wait;
+                }
+            } while (!nextFree.compareAndSet(current, next));
+            return 0;
+        }
+
+        private void refund() {
+            nextFree.addAndGet(-interval);
+        }
+
+    }
+
+    private static final class IdleExpiry implements Expiry<BucketKey, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(BucketKey key, TokenBucket bucket, long currentTime) {
+            return bucket.burst;
+        }
+
+        @Override
+        public long expireAfterUpdate(BucketKey key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.burst;
+        }
+
+        @Override
+        public long expireAfterRead(BucketKey key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.burst;
+        }
+
+    }
+
+}
@@ -1,29 +1,83 @@
 package pl.empik.complaintmanager.web;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.empik.complaintmanager.service.ComplaintBatchService;
+import pl.empik.complaintmanager.service.ComplaintExportService;
+import pl.empik.complaintmanager.service.ComplaintSearchService;
 import pl.empik.complaintmanager.service.ComplaintService;
+import pl.empik.complaintmanager.service.ComplaintStatsService;
+import pl.empik.complaintmanager.service.ExportFormat;
+import pl.empik.complaintmanager.service.RateLimiter;
+import pl.empik.complaintmanager.web.model.ComplaintBatchItemDto;
+import pl.empik.complaintmanager.web.model.ComplaintBatchResponseDto;
 import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
 import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
+import pl.empik.complaintmanager.web.model.ComplaintSearchResultDto;
+import pl.empik.complaintmanager.web.model.ComplaintStatsDto;
+import pl.empik.complaintmanager.web.model.CursorPageDto;
 import pl.empik.complaintmanager.web.model.UpdateComplaintRequestDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/complaints")
 class ComplaintController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String ADD_ENDPOINT = "add";
+    private static final String BATCH_ENDPOINT = "batch";
+    private static final String SEARCH_ENDPOINT = "search";
+
     private final ComplaintService complaintService;
+    private final ComplaintBatchService complaintBatchService;
+    private final ComplaintExportService complaintExportService;
+    private final ComplaintStatsService complaintStatsService;
+    private final ComplaintSearchService complaintSearchService;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     ComplaintResponseDto addComplaint(@RequestBody ComplaintRequestDto createComplaintDTO,
                                       @RequestHeader("ip") String ip) {
+        rateLimiter.acquire(ADD_ENDPOINT, ip, createComplaintDTO.getComplainant());
         return complaintService.addComplaint(createComplaintDTO, ip);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    ComplaintBatchResponseDto addComplaints(@RequestBody List<ComplaintBatchItemDto> complaints,
+                                            HttpServletRequest request) {
+        rateLimiter.acquire(BATCH_ENDPOINT, request.getRemoteAddr(), null);
+        return complaintBatchService.addComplaints(complaints);
+    }
+
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    ComplaintBatchResponseDto addComplaints(InputStream body, HttpServletRequest request) throws IOException {
+        rateLimiter.acquire(BATCH_ENDPOINT, request.getRemoteAddr(), null);
+        try (MappingIterator<ComplaintBatchItemDto> complaints =
+                     objectMapper.readerFor(ComplaintBatchItemDto.class).readValues(body)) {
+            return complaintBatchService.addComplaints(complaints);
+        }
+    }
+
     @PutMapping("/{id}")
     ComplaintResponseDto updateComplaintContent(@PathVariable Long id, @RequestBody UpdateComplaintRequestDto updateComplaintDTO) {
         return complaintService.updateComplaintContent(id, updateComplaintDTO);
@@ -32,14 +86,80 @@ class ComplaintController {
     @GetMapping
     Page<ComplaintResponseDto> getAllComplaints(@RequestParam(required = false) Long productId,
                                                 @RequestParam(required = false) String complainant,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                @RequestParam(required = false) String fields,
                                                 @RequestParam(defaultValue = "0") int page,
                                                 @RequestParam(defaultValue = "10") int size) {
-        return complaintService.getAllComplaints(productId, complainant, PageRequest.of(page, size));
+        return complaintService.getAllComplaints(productId, complainant, from, to, fields, PageRequest.of(page, size));
+    }
+
+    @GetMapping(params = {"cursor", "!q"})
+    CursorPageDto<ComplaintResponseDto> getComplaintsAfter(@RequestParam(required = false) Long productId,
+                                                           @RequestParam(required = false) String complainant,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                           @RequestParam(required = false) String fields,
+                                                           @RequestParam String cursor,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        return complaintService.getComplaintsAfter(productId, complainant, from, to, fields, cursor, size);
+    }
+
+    @GetMapping(params = "q")
+    CursorPageDto<ComplaintSearchResultDto> searchComplaints(@RequestParam String q,
+                                                             @RequestParam(required = false) Long productId,
+                                                             @RequestParam(required = false) String complainant,
+                                                             @RequestParam(required = false)
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                             @RequestParam(required = false)
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                             @RequestParam(required = false) String fields,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "10") int size,
+                                                             HttpServletRequest request) {
+        rateLimiter.acquire(SEARCH_ENDPOINT, request.getRemoteAddr(), null);
+        return complaintSearchService.search(q, productId, complainant, from, to, fields, cursor, size);
+    }
+
+    @GetMapping("/export")
+    ResponseEntity<StreamingResponseBody> exportComplaints(@RequestParam(required = false) Long productId,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                           @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=complaints." + exportFormat.getExtension())
+                .body(out -> complaintExportService.export(productId, from, to, exportFormat, out));
+    }
+
+    @GetMapping("/stats")
+    ComplaintStatsDto getStats(@RequestParam Long productId) {
+        return complaintStatsService.getStats(productId);
+    }
+
+    @PostMapping("/stats/rebuild")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    void rebuildStats() {
+        complaintStatsService.rebuildStats();
     }
 
     @GetMapping("/{id}")
-    ComplaintResponseDto getComplaintById(@PathVariable Long id) {
-        return complaintService.getComplaintById(id);
+    ResponseEntity<ComplaintResponseDto> getComplaintById(@PathVariable Long id) {
+        ComplaintResponseDto complaint = complaintService.getComplaintById(id);
+        return ResponseEntity.ok()
+                .eTag(eTag(complaint))
+                .body(complaint);
+    }
+
+    private static String eTag(ComplaintResponseDto complaint) {
+        return complaint.getVersion() + "-" + complaint.getClaimCounter() + "-" + Integer.toHexString(complaint.hashCode());
     }
 
-}
\ No newline at end of file
+}
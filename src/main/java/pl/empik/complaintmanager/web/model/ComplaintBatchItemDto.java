@@ -0,0 +1,13 @@
+package pl.empik.complaintmanager.web.model;
+
+import lombok.Data;
+
+@Data
+public class ComplaintBatchItemDto {
+
+    private Long productId;
+    private String content;
+    private String complainant;
+    private String ip;
+
+}
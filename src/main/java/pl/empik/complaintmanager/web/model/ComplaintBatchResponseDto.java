@@ -0,0 +1,14 @@
+package pl.empik.complaintmanager.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ComplaintBatchResponseDto {
+
+    private int received;
+    private int created;
+    private int incremented;
+
+}
@@ -1,5 +1,6 @@
 package pl.empik.complaintmanager.web.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ComplaintResponseDto {
 
     private Long id;
@@ -16,5 +18,6 @@ public class ComplaintResponseDto {
     private String complainant;
     private String country;
     private Integer claimCounter;
+    private Long version;
 
 }
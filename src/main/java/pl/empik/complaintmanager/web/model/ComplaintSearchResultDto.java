@@ -0,0 +1,15 @@
+package pl.empik.complaintmanager.web.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ComplaintSearchResultDto {
+
+    @JsonUnwrapped
+    private ComplaintResponseDto complaint;
+    private String highlight;
+
+}
@@ -0,0 +1,17 @@
+package pl.empik.complaintmanager.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ComplaintStatsDto {
+
+    private Long productId;
+    private long complaintCount;
+    private long claimCount;
+    private List<CountryStatsDto> countries;
+
+}
@@ -0,0 +1,14 @@
+package pl.empik.complaintmanager.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CountryStatsDto {
+
+    private String country;
+    private long complaintCount;
+    private long claimCount;
+
+}
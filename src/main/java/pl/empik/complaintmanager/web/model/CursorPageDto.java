@@ -0,0 +1,16 @@
+package pl.empik.complaintmanager.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+
+}
@@ -6,5 +6,6 @@ import lombok.Data;
 public class UpdateComplaintRequestDto {
 
     private String content;
+    private Long version;
 
 }
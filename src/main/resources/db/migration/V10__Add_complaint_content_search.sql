@@ -0,0 +1,43 @@
+ALTER TABLE complaints
+    ADD COLUMN content_tsv TSVECTOR GENERATED ALWAYS AS (to_tsvector('english', content)) STORED;
+
+CREATE INDEX idx_complaints_content_tsv ON complaints USING gin (content_tsv);
+
+CREATE OR REPLACE FUNCTION create_complaint_partition(p_month DATE) RETURNS TEXT AS
+$$
+DECLARE
+    partition_start DATE := date_trunc('month', p_month);
+    partition_name  TEXT := 'complaints_p' || to_char(partition_start, 'YYYYMM');
+    partition_end   DATE := partition_start + INTERVAL '1 month';
+    misplaced       BOOLEAN;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+    SELECT EXISTS (SELECT 1
+                   FROM complaints_default
+                   WHERE creation_date >= partition_start AND creation_date < partition_end)
+    INTO misplaced;
+    IF misplaced THEN
+        CREATE TEMPORARY TABLE complaints_moved ON COMMIT DROP AS
+        SELECT id, product_id, content, creation_date, complainant, country, claim_counter, version
+        FROM complaints
+        WITH NO DATA;
+        WITH moved AS (
+            DELETE FROM complaints
+            WHERE tableoid = 'complaints_default'::regclass
+              AND creation_date >= partition_start AND creation_date < partition_end
+            RETURNING id, product_id, content, creation_date, complainant, country, claim_counter, version)
+        INSERT INTO complaints_moved SELECT * FROM moved;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF complaints FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, partition_end);
+    IF misplaced THEN
+        INSERT INTO complaints (id, product_id, content, creation_date, complainant, country, claim_counter, version)
+        SELECT id, product_id, content, creation_date, complainant, country, claim_counter, version
+        FROM complaints_moved;
+        DROP TABLE complaints_moved;
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
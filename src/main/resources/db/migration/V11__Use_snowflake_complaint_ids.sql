@@ -0,0 +1,16 @@
+CREATE TABLE complaint_shard
+(
+    id        SMALLINT NOT NULL CHECK (id BETWEEN 0 AND 1023),
+    singleton BOOLEAN  NOT NULL DEFAULT TRUE PRIMARY KEY CHECK (singleton)
+);
+
+ALTER SEQUENCE complaints_seq INCREMENT BY 1;
+
+CREATE FUNCTION next_complaint_id() RETURNS BIGINT AS
+$$
+SELECT ((floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT - 1767225600000) << 22)
+           | (coalesce((SELECT id FROM complaint_shard), 0)::BIGINT << 12)
+           | (nextval('complaints_seq') % 4096)
+$$ LANGUAGE sql;
+
+ALTER TABLE complaints ALTER COLUMN id SET DEFAULT next_complaint_id();
@@ -0,0 +1,29 @@
+CREATE SEQUENCE complaint_id_ticks MAXVALUE 9007199254740991;
+
+SELECT setval('complaint_id_ticks', greatest(
+        (floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT - 1767225600000) << 12,
+        coalesce((SELECT max(((id >> 22) << 12) | (id & 4095)) FROM complaints WHERE id >= 1099511627776), 0),
+        1));
+
+CREATE OR REPLACE FUNCTION next_complaint_id() RETURNS BIGINT AS
+$$
+DECLARE
+    v_clock BIGINT;
+    v_tick  BIGINT;
+BEGIN
+    PERFORM pg_advisory_lock(hashtext('complaint_id_ticks'));
+    BEGIN
+        v_clock := (floor(extract(EPOCH FROM clock_timestamp()) * 1000)::BIGINT - 1767225600000) << 12;
+        SELECT greatest(v_clock, last_value + 1) INTO v_tick FROM complaint_id_ticks;
+        PERFORM setval('complaint_id_ticks', v_tick);
+    EXCEPTION
+        WHEN OTHERS THEN
+            PERFORM pg_advisory_unlock(hashtext('complaint_id_ticks'));
+            RAISE;
+    END;
+    PERFORM pg_advisory_unlock(hashtext('complaint_id_ticks'));
+    RETURN ((v_tick >> 12) << 22)
+        | (coalesce((SELECT id FROM complaint_shard), 0)::BIGINT << 12)
+        | (v_tick & 4095);
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,23 @@
+ALTER TABLE complaints ALTER COLUMN country TYPE VARCHAR(16);
+
+WITH duplicates AS (
+    SELECT product_id, complainant, MIN(id) AS kept_id, SUM(claim_counter) AS total_claims
+    FROM complaints
+    GROUP BY product_id, complainant
+    HAVING COUNT(*) > 1
+)
+UPDATE complaints c
+SET claim_counter = d.total_claims
+FROM duplicates d
+WHERE c.id = d.kept_id;
+
+DELETE FROM complaints c
+USING complaints kept
+WHERE c.product_id = kept.product_id
+  AND c.complainant = kept.complainant
+  AND c.id > kept.id;
+
+ALTER TABLE complaints
+    ADD CONSTRAINT uk_complaints_product_id_complainant UNIQUE (product_id, complainant);
+
+DROP INDEX idx_complaints_product_id;
@@ -0,0 +1,8 @@
+CREATE SEQUENCE complaints_seq INCREMENT BY 50;
+
+SELECT setval('complaints_seq', COALESCE((SELECT MAX(id) FROM complaints), 0) + 50);
+
+ALTER TABLE complaints ALTER COLUMN id SET DEFAULT nextval('complaints_seq');
+ALTER SEQUENCE complaints_seq OWNED BY complaints.id;
+
+DROP SEQUENCE complaints_id_seq;
@@ -0,0 +1,3 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_complaints_complainant_trgm ON complaints USING gin (lower(complainant) gin_trgm_ops);
@@ -0,0 +1,3 @@
+CREATE INDEX idx_complaints_creation_date_id ON complaints (creation_date, id);
+
+CREATE INDEX idx_complaints_product_id_creation_date_id ON complaints (product_id, creation_date, id);
@@ -0,0 +1,13 @@
+CREATE TABLE country_enrichment_outbox
+(
+    id              BIGSERIAL PRIMARY KEY,
+    product_id      BIGINT       NOT NULL,
+    complainant     VARCHAR(255) NOT NULL,
+    ip_address      TEXT         NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT now(),
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL DEFAULT now(),
+    CONSTRAINT uk_country_enrichment_outbox_complaint UNIQUE (product_id, complainant)
+);
+
+CREATE INDEX idx_country_enrichment_outbox_next_attempt_at ON country_enrichment_outbox (next_attempt_at);
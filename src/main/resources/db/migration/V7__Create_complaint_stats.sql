@@ -0,0 +1,75 @@
+CREATE TABLE complaint_stats
+(
+    product_id      BIGINT      NOT NULL,
+    country         VARCHAR(16) NOT NULL,
+    complaint_count BIGINT      NOT NULL,
+    claim_count     BIGINT      NOT NULL,
+    PRIMARY KEY (product_id, country)
+);
+
+CREATE FUNCTION apply_complaint_stats(p_product_id BIGINT, p_country TEXT, p_complaints BIGINT, p_claims BIGINT)
+    RETURNS VOID AS
+$$
+BEGIN
+    INSERT INTO complaint_stats (product_id, country, complaint_count, claim_count)
+    VALUES (p_product_id, p_country, p_complaints, p_claims)
+    ON CONFLICT (product_id, country) DO UPDATE
+        SET complaint_count = complaint_stats.complaint_count + EXCLUDED.complaint_count,
+            claim_count     = complaint_stats.claim_count + EXCLUDED.claim_count;
+    IF p_complaints < 0 THEN
+        DELETE FROM complaint_stats
+        WHERE product_id = p_product_id AND country = p_country AND complaint_count <= 0;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION maintain_complaint_stats() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.product_id = NEW.product_id AND rtrim(OLD.country) = rtrim(NEW.country) THEN
+        PERFORM apply_complaint_stats(NEW.product_id, rtrim(NEW.country), 0, NEW.claim_counter - OLD.claim_counter);
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM apply_complaint_stats(OLD.product_id, rtrim(OLD.country), -1, -OLD.claim_counter);
+    END IF;
+    IF TG_OP IN ('UPDATE', 'INSERT') THEN
+        PERFORM apply_complaint_stats(NEW.product_id, rtrim(NEW.country), 1, NEW.claim_counter);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION clear_complaint_stats() RETURNS TRIGGER AS
+$$
+BEGIN
+    TRUNCATE complaint_stats;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_complaint_stats_insert_delete
+    AFTER INSERT OR DELETE
+    ON complaints
+    FOR EACH ROW
+EXECUTE FUNCTION maintain_complaint_stats();
+
+CREATE TRIGGER trg_complaint_stats_update
+    AFTER UPDATE OF product_id, country, claim_counter
+    ON complaints
+    FOR EACH ROW
+    WHEN (OLD.product_id IS DISTINCT FROM NEW.product_id
+        OR OLD.country IS DISTINCT FROM NEW.country
+        OR OLD.claim_counter IS DISTINCT FROM NEW.claim_counter)
+EXECUTE FUNCTION maintain_complaint_stats();
+
+CREATE TRIGGER trg_complaint_stats_truncate
+    AFTER TRUNCATE
+    ON complaints
+    FOR EACH STATEMENT
+EXECUTE FUNCTION clear_complaint_stats();
+
+INSERT INTO complaint_stats (product_id, country, complaint_count, claim_count)
+SELECT product_id, rtrim(country), count(*), sum(claim_counter)
+FROM complaints
+GROUP BY product_id, rtrim(country);
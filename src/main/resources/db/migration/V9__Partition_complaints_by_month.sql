@@ -0,0 +1,178 @@
+ALTER TABLE complaints RENAME TO complaints_unpartitioned;
+
+CREATE TABLE complaints
+(
+    id            BIGINT       NOT NULL DEFAULT nextval('complaints_seq'),
+    product_id    BIGINT       NOT NULL,
+    content       TEXT         NOT NULL,
+    creation_date TIMESTAMP    NOT NULL,
+    complainant   VARCHAR(255) NOT NULL,
+    country       VARCHAR(16)  NOT NULL,
+    claim_counter INT          NOT NULL,
+    version       BIGINT       NOT NULL DEFAULT 0
+) PARTITION BY RANGE (creation_date);
+
+CREATE TABLE complaints_default PARTITION OF complaints DEFAULT;
+
+CREATE FUNCTION create_complaint_partition(p_month DATE) RETURNS TEXT AS
+$$
+DECLARE
+    partition_start DATE := date_trunc('month', p_month);
+    partition_name  TEXT := 'complaints_p' || to_char(partition_start, 'YYYYMM');
+    partition_end   DATE := partition_start + INTERVAL '1 month';
+    misplaced       BOOLEAN;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+    SELECT EXISTS (SELECT 1
+                   FROM complaints_default
+                   WHERE creation_date >= partition_start AND creation_date < partition_end)
+    INTO misplaced;
+    IF misplaced THEN
+        CREATE TEMPORARY TABLE complaints_moved (LIKE complaints) ON COMMIT DROP;
+        WITH moved AS (
+            DELETE FROM complaints
+            WHERE tableoid = 'complaints_default'::regclass
+              AND creation_date >= partition_start AND creation_date < partition_end
+            RETURNING *)
+        INSERT INTO complaints_moved SELECT * FROM moved;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF complaints FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_start, partition_end);
+    IF misplaced THEN
+        INSERT INTO complaints SELECT * FROM complaints_moved;
+        DROP TABLE complaints_moved;
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_complaint_partition(month::DATE)
+FROM (SELECT date_trunc('month', coalesce(min(creation_date), now())) AS first_month
+      FROM complaints_unpartitioned) data,
+     generate_series(data.first_month, date_trunc('month', now()) + INTERVAL '3 months', INTERVAL '1 month') AS month;
+
+INSERT INTO complaints (id, product_id, content, creation_date, complainant, country, claim_counter, version)
+SELECT id, product_id, content, creation_date, complainant, country, claim_counter, version
+FROM complaints_unpartitioned;
+
+CREATE TABLE complaint_keys
+(
+    product_id  BIGINT       NOT NULL,
+    complainant VARCHAR(255) NOT NULL,
+    PRIMARY KEY (product_id, complainant)
+);
+
+INSERT INTO complaint_keys (product_id, complainant)
+SELECT product_id, complainant
+FROM complaints;
+
+ALTER SEQUENCE complaints_seq OWNED BY NONE;
+DROP TABLE complaints_unpartitioned;
+ALTER SEQUENCE complaints_seq OWNED BY complaints.id;
+
+ALTER TABLE complaints ADD PRIMARY KEY (id, creation_date);
+CREATE INDEX idx_complaints_product_id_complainant ON complaints (product_id, complainant);
+CREATE INDEX idx_complaints_complainant_trgm ON complaints USING gin (lower(complainant) gin_trgm_ops);
+CREATE INDEX idx_complaints_creation_date_id ON complaints (creation_date, id);
+CREATE INDEX idx_complaints_product_id_creation_date_id ON complaints (product_id, creation_date, id);
+
+CREATE FUNCTION maintain_complaint_keys() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM complaint_keys WHERE product_id = OLD.product_id AND complainant = OLD.complainant;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'INSERT') THEN
+        INSERT INTO complaint_keys (product_id, complainant) VALUES (NEW.product_id, NEW.complainant);
+        RETURN NEW;
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_complaint_keys_insert_delete
+    BEFORE INSERT OR DELETE
+    ON complaints
+    FOR EACH ROW
+EXECUTE FUNCTION maintain_complaint_keys();
+
+CREATE TRIGGER trg_complaint_keys_update
+    BEFORE UPDATE OF product_id, complainant
+    ON complaints
+    FOR EACH ROW
+    WHEN (OLD.product_id IS DISTINCT FROM NEW.product_id OR OLD.complainant IS DISTINCT FROM NEW.complainant)
+EXECUTE FUNCTION maintain_complaint_keys();
+
+CREATE OR REPLACE FUNCTION clear_complaint_stats() RETURNS TRIGGER AS
+$$
+BEGIN
+    TRUNCATE complaint_stats, complaint_keys;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_complaint_stats_insert_delete
+    AFTER INSERT OR DELETE
+    ON complaints
+    FOR EACH ROW
+EXECUTE FUNCTION maintain_complaint_stats();
+
+CREATE TRIGGER trg_complaint_stats_update
+    AFTER UPDATE OF product_id, country, claim_counter
+    ON complaints
+    FOR EACH ROW
+    WHEN (OLD.product_id IS DISTINCT FROM NEW.product_id
+        OR OLD.country IS DISTINCT FROM NEW.country
+        OR OLD.claim_counter IS DISTINCT FROM NEW.claim_counter)
+EXECUTE FUNCTION maintain_complaint_stats();
+
+CREATE TRIGGER trg_complaint_stats_truncate
+    AFTER TRUNCATE
+    ON complaints
+    FOR EACH STATEMENT
+EXECUTE FUNCTION clear_complaint_stats();
+
+CREATE FUNCTION upsert_complaint(p_product_id BIGINT, p_content TEXT, p_creation_date TIMESTAMP,
+                                 p_complainant VARCHAR, p_country VARCHAR, p_claims INT)
+    RETURNS complaints AS
+$$
+DECLARE
+    result complaints;
+BEGIN
+    FOR attempt IN 1..3
+        LOOP
+            UPDATE complaints
+            SET claim_counter = claim_counter + p_claims
+            WHERE product_id = p_product_id AND complainant = p_complainant
+            RETURNING * INTO result;
+            IF FOUND THEN
+                RETURN result;
+            END IF;
+            BEGIN
+                INSERT INTO complaints (product_id, content, creation_date, complainant, country, claim_counter)
+                VALUES (p_product_id, p_content, p_creation_date, p_complainant, p_country, p_claims)
+                RETURNING * INTO result;
+                RETURN result;
+            EXCEPTION
+                WHEN unique_violation THEN
+                    NULL;
+            END;
+        END LOOP;
+    RAISE EXCEPTION 'Could not insert or update complaint for product % and complainant %', p_product_id, p_complainant
+        USING ERRCODE = 'serialization_failure';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION detach_complaint_partition(p_partition TEXT) RETURNS TEXT AS
+$$
+BEGIN
+    EXECUTE format('ALTER TABLE complaints DETACH PARTITION %I', p_partition);
+    EXECUTE format('SELECT apply_complaint_stats(product_id, rtrim(country), -count(*), -sum(claim_counter)) '
+                       || 'FROM %I GROUP BY product_id, rtrim(country)', p_partition);
+    EXECUTE format('DELETE FROM complaint_keys k USING %I p '
+                       || 'WHERE k.product_id = p.product_id AND k.complainant = p.complainant', p_partition);
+    RETURN p_partition;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,163 @@
+package pl.empik.complaintmanager.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimitConfig config;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        config = new ConcurrencyLimitConfig();
+        config.setInitialLimit(4);
+        config.setMinLimit(2);
+        config.setLowPriorityShare(0.5);
+        filter = new ConcurrencyLimitFilter(config, meterRegistry);
+    }
+
+    @Test
+    void tryAcquire_LowPriority_ShouldOnlyUseItsShareOfTheLimit() {
+        AdaptiveConcurrencyLimit limit = filter.getLimit();
+
+        assertThat(limit.tryAcquire(false)).isEqualTo(1);
+        assertThat(limit.tryAcquire(false)).isEqualTo(2);
+        assertThat(limit.tryAcquire(false)).isNegative();
+        assertThat(limit.tryAcquire(true)).isEqualTo(3);
+        assertThat(limit.tryAcquire(true)).isEqualTo(4);
+        assertThat(limit.tryAcquire(true)).isNegative();
+    }
+
+    @Test
+    void doFilter_LimitReached_ShouldShedRequestWithServiceUnavailable() throws ServletException, IOException {
+        filter.getLimit().tryAcquire(false);
+        filter.getLimit().tryAcquire(false);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/complaints"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED_COUNTER).tag("priority", "low").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_CheapReadWhileWritesAreShed_ShouldPass() throws ServletException, IOException {
+        filter.getLimit().tryAcquire(false);
+        filter.getLimit().tryAcquire(false);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/complaints/42"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(filter.getLimit().getInflight()).isEqualTo(2);
+    }
+
+    @Test
+    void doFilter_ChainFailure_ShouldReleasePermit() {
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("POST", "/api/complaints"),
+                new MockHttpServletResponse(), chain)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(filter.getLimit().getInflight()).isZero();
+        assertThat(filter.getLimit().getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void doFilter_ServerErrors_ShouldLowerLimit() throws ServletException, IOException {
+        config.setInitialLimit(20);
+        filter = new ConcurrencyLimitFilter(config, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/complaints"), new MockHttpServletResponse(),
+                    new MockFilterChain(new HttpServlet() {
+                        @Override
+                        protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        }
+                    }));
+        }
+
+        assertThat(filter.getLimit().getLimit()).isEqualTo(11);
+        assertThat(filter.getLimit().getInflight()).isZero();
+    }
+
+    @Test
+    void doFilter_Disabled_ShouldNotLimit() throws ServletException, IOException {
+        config.setEnabled(false);
+        filter.getLimit().tryAcquire(true);
+        filter.getLimit().tryAcquire(true);
+        filter.getLimit().tryAcquire(true);
+        filter.getLimit().tryAcquire(true);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/complaints"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void release_StableLatencyUnderLoad_ShouldRaiseLimit() {
+        AdaptiveConcurrencyLimit limit = filter.getLimit();
+
+        sample(limit, Duration.ofMillis(5), 50);
+
+        assertThat(limit.getLimit()).isGreaterThan(4);
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.LIMIT_GAUGE).gauge().value()).isEqualTo(limit.getLimit());
+    }
+
+    @Test
+    void release_RisingLatency_ShouldLowerLimitDownToMinimum() {
+        AdaptiveConcurrencyLimit limit = filter.getLimit();
+        sample(limit, Duration.ofMillis(5), 100);
+        int before = limit.getLimit();
+
+        sample(limit, Duration.ofMillis(50), 20);
+
+        assertThat(limit.getLimit()).isLessThan(before).isGreaterThanOrEqualTo(config.getMinLimit());
+    }
+
+    @Test
+    void release_FewRequestsInFlight_ShouldKeepLimit() {
+        AdaptiveConcurrencyLimit limit = filter.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            limit.release(Duration.ofMillis(5).toNanos(), limit.tryAcquire(true));
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    private static void sample(AdaptiveConcurrencyLimit limit, Duration rtt, int samples) {
+        for (int i = 0; i < samples; i++) {
+            limit.tryAcquire(true);
+            limit.release(rtt.toNanos(), limit.getLimit());
+        }
+    }
+
+}
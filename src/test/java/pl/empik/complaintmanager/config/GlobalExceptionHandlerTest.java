@@ -0,0 +1,57 @@
+package pl.empik.complaintmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+
+    @Test
+    void handle_ConnectionUnavailable_ShouldReturnServiceUnavailable() throws Exception {
+        ResponseEntity<?> response = handle(new CannotGetJdbcConnectionException("Pool exhausted", new SQLException()));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(503);
+        assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void handle_TransactionNotStarted_ShouldReturnServiceUnavailable() throws Exception {
+        assertThat(handle(new CannotCreateTransactionException("Could not open JPA EntityManager"))
+                .getStatusCode().value()).isEqualTo(503);
+    }
+
+    @Test
+    void handle_QueryTimeout_ShouldReturnServiceUnavailable() throws Exception {
+        assertThat(handle(new QueryTimeoutException("Query timed out")).getStatusCode().value()).isEqualTo(503);
+    }
+
+    @Test
+    void handle_ConcurrencyFailures_ShouldStillReturnConflict() throws Exception {
+        assertThat(handle(new OptimisticLockingFailureException("Stale version")).getStatusCode().value()).isEqualTo(409);
+        assertThat(handle(new CannotAcquireLockException("Lock timeout")).getStatusCode().value()).isEqualTo(409);
+    }
+
+    @Test
+    void handle_OtherRuntimeException_ShouldReturnNotFound() throws Exception {
+        assertThat(handle(new RuntimeException("Complaint not found")).getStatusCode().value()).isEqualTo(404);
+    }
+
+    private ResponseEntity<?> handle(Exception ex) throws Exception {
+        Method method = resolver.resolveMethod(ex);
+        return (ResponseEntity<?>) method.invoke(handler, ex);
+    }
+
+}
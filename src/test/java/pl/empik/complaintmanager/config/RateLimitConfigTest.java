@@ -0,0 +1,43 @@
+package pl.empik.complaintmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.context.properties.bind.validation.BindValidationException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+            .withUserConfiguration(RateLimitConfig.class);
+
+    @Test
+    void bind_ValidLimit_ShouldStart() {
+        contextRunner
+                .withPropertyValues("complaints.rate-limit.endpoints.add.ip.capacity=60",
+                        "complaints.rate-limit.endpoints.add.ip.period=PT1M")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    RateLimitConfig.Limit limit = context.getBean(RateLimitConfig.class).getEndpoints().get("add").getIp();
+                    assertThat(limit.getCapacity()).isEqualTo(60);
+                    assertThat(limit.getPeriod()).isEqualTo(Duration.ofMinutes(1));
+                });
+    }
+
+    @Test
+    void bind_PeriodWithoutCapacity_ShouldFailAtStartup() {
+        contextRunner
+                .withPropertyValues("complaints.rate-limit.endpoints.add.ip.period=PT1M")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure()
+                        .hasRootCauseInstanceOf(BindValidationException.class)
+                        .rootCause()
+                        .hasMessageContaining("endpoints[add].ip.capacity"));
+    }
+
+}
@@ -0,0 +1,30 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.ConfigurationPropertiesAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ConfigurationPropertiesAutoConfiguration.class))
+            .withUserConfiguration(ReplicaConfig.class, ComplaintClaimsConfig.class, ReplicaRoutingConfiguration.class)
+            .withBean("dataSource", HikariDataSource.class, HikariDataSource::new)
+            .withPropertyValues("complaints.replicas.enabled=true");
+
+    @Test
+    void replicasWithWriteBehindClaims_ShouldFailAtStartup() {
+        contextRunner
+                .withPropertyValues("complaints.claims.writeBehind=true")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure()
+                        .hasRootCauseInstanceOf(IllegalStateException.class)
+                        .rootCause()
+                        .hasMessageContaining("write-behind"));
+    }
+
+}
@@ -0,0 +1,135 @@
+package pl.empik.complaintmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource firstReplica;
+    private HikariDataSource secondReplica;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = pool(0);
+        firstReplica = pool(0);
+        secondReplica = pool(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.requirePrimary(false);
+    }
+
+    @Test
+    void readOnlyConnection_ShouldBeTakenFromReplica() throws SQLException {
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.ROUND_ROBIN, firstReplica);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+
+        verify(firstReplica).getConnection();
+    }
+
+    @Test
+    void writeConnection_ShouldBeTakenFromPrimary() throws SQLException {
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.ROUND_ROBIN, firstReplica);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+
+        verify(firstReplica, never()).getConnection();
+    }
+
+    @Test
+    void selectReplica_RoundRobin_ShouldAlternateReplicas() {
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.ROUND_ROBIN, firstReplica, secondReplica);
+
+        assertThat(List.of(dataSource.selectReplica(), dataSource.selectReplica(), dataSource.selectReplica()))
+                .containsExactly(firstReplica, secondReplica, firstReplica);
+    }
+
+    @Test
+    void selectReplica_LeastConnections_ShouldPickLeastBusyReplica() throws SQLException {
+        firstReplica = pool(5);
+        secondReplica = pool(1);
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.LEAST_CONNECTIONS, firstReplica, secondReplica);
+
+        assertThat(dataSource.selectReplica()).isSameAs(secondReplica);
+        assertThat(dataSource.selectReplica()).isSameAs(secondReplica);
+    }
+
+    @Test
+    void selectReplica_RecentWrite_ShouldReadFromPrimary() {
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.ROUND_ROBIN, firstReplica);
+
+        ReplicaRoutingDataSource.requirePrimary(true);
+
+        assertThat(dataSource.selectReplica()).isSameAs(primary);
+    }
+
+    @Test
+    void selectReplica_NoReplicas_ShouldReadFromPrimary() {
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.LEAST_CONNECTIONS);
+
+        assertThat(dataSource.selectReplica()).isSameAs(primary);
+    }
+
+    @Test
+    void readOnlyConnection_ReplicaUnavailable_ShouldFallBackToPrimary() throws SQLException {
+        doThrow(new SQLTransientConnectionException("replica down")).when(firstReplica).getConnection();
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.ROUND_ROBIN, firstReplica);
+        clearInvocations(primary);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+
+        verify(firstReplica).getConnection();
+        verify(primary).getConnection();
+    }
+
+    @Test
+    void limitConnections_ShouldWrapPrimaryAndReplicas() {
+        ReplicaRoutingDataSource dataSource = routing(ReplicaConfig.Selection.ROUND_ROBIN, firstReplica);
+
+        dataSource.limitConnections(pool -> new ConnectionLimitingDataSource(pool, 2, 50));
+
+        assertThat(dataSource.getTargetDataSource()).isInstanceOf(ConnectionLimitingDataSource.class);
+        assertThat(dataSource.selectReplica()).isInstanceOf(ConnectionLimitingDataSource.class);
+        ReplicaRoutingDataSource.requirePrimary(true);
+        assertThat(dataSource.selectReplica()).isSameAs(dataSource.getTargetDataSource());
+    }
+
+    private ReplicaRoutingDataSource routing(ReplicaConfig.Selection selection, HikariDataSource... replicas) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replicas), selection);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    private static HikariDataSource pool(int activeConnections) throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        HikariPoolMXBean mxBean = mock(HikariPoolMXBean.class);
+        when(mxBean.getActiveConnections()).thenReturn(activeConnections);
+        when(pool.getHikariPoolMXBean()).thenReturn(mxBean);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return pool;
+    }
+
+}
@@ -1,19 +1,87 @@
 package pl.empik.complaintmanager.config;
 
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.web.client.RestClient;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.assertj.core.api.Assertions.assertThat;
 
 class RestClientConfigurationTest {
 
     private final RestClientConfiguration configuration = new RestClientConfiguration();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @Test
     void restClient_ShouldCreateRestClientWithCorrectBaseUrl() {
-        RestClient restClient = configuration.geoLocationClient(new GeoLocationConfig());
+        GeoLocationConfig config = new GeoLocationConfig();
+        ClientHttpRequestFactory requestFactory =
+                configuration.geoLocationRequestFactory(config, new MockEnvironment(), meterRegistry);
 
+        RestClient restClient = configuration.geoLocationClient(config, requestFactory, ObservationRegistry.NOOP);
+
+        assertThat(requestFactory).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
         assertThat(restClient).isNotNull();
     }
 
+    @Test
+    void restClient_JdkTransport_ShouldUseJdkHttpClient() {
+        GeoLocationConfig config = new GeoLocationConfig();
+        config.getTransport().setType(GeoLocationConfig.TransportType.JDK);
+
+        ClientHttpRequestFactory requestFactory =
+                configuration.geoLocationRequestFactory(config, new MockEnvironment(), meterRegistry);
+
+        assertThat(requestFactory).isInstanceOf(JdkClientHttpRequestFactory.class);
+    }
+
+    @Test
+    void restClient_VirtualThreadsEnabled_ShouldCreateRestClient() {
+        var environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        GeoLocationConfig config = new GeoLocationConfig();
+        config.getTransport().setType(GeoLocationConfig.TransportType.JDK);
+
+        RestClient restClient = configuration.geoLocationClient(config,
+                configuration.geoLocationRequestFactory(config, environment, meterRegistry), ObservationRegistry.NOOP);
+
+        assertThat(restClient).isNotNull();
+    }
+
+    @Test
+    void restClient_ApacheTransport_ShouldReusePooledConnections() {
+        WireMockServer server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        try {
+            server.stubFor(get(urlPathMatching("/json/.*"))
+                    .willReturn(aResponse().withHeader("Content-Type", "application/json").withBody("{\"countryCode\":\"PL\"}")));
+            GeoLocationConfig config = new GeoLocationConfig();
+            config.setUrl(server.baseUrl());
+            ClientHttpRequestFactory requestFactory =
+                    configuration.geoLocationRequestFactory(config, new MockEnvironment(), meterRegistry);
+            RestClient restClient = configuration.geoLocationClient(config, requestFactory, ObservationRegistry.NOOP);
+
+            for (int i = 0; i < 3; i++) {
+                restClient.get().uri("/json/{ip}", "127.0.0.1").retrieve().body(String.class);
+            }
+
+            assertThat(requestFactory).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+            assertThat(meterRegistry.get("geolocation.http.requests").tag("connection", "new").counter().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("geolocation.http.requests").tag("connection", "reused").counter().count())
+                    .isEqualTo(2);
+        } finally {
+            server.stop();
+        }
+    }
+
 }
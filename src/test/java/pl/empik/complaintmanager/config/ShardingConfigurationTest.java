@@ -0,0 +1,46 @@
+package pl.empik.complaintmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardingConfigurationTest {
+
+    private static final String FIND_PRODUCT = "SELECT min(product_id) FROM complaints WHERE product_id >= ? AND product_id < ?";
+
+    private final JdbcTemplate shard = mock(JdbcTemplate.class);
+
+    @Test
+    void verifyProductOwnership_ForeignProducts_ShouldFailStartup() {
+        when(shard.queryForObject(FIND_PRODUCT, Long.class, 1000L, Long.MAX_VALUE)).thenReturn(1500L);
+
+        assertThatThrownBy(() -> ShardingConfiguration.verifyProductOwnership(shard, 0, List.of(range(1000, 1))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("product 1500")
+                .hasMessageContaining("shard 1");
+    }
+
+    @Test
+    void verifyProductOwnership_OnlyOwnProducts_ShouldPass() {
+        assertThatCode(() -> ShardingConfiguration.verifyProductOwnership(shard, 1,
+                List.of(range(2000, 0), range(1000, 1)))).doesNotThrowAnyException();
+
+        verify(shard).queryForObject(FIND_PRODUCT, Long.class, Long.MIN_VALUE, 1000L);
+        verify(shard).queryForObject(FIND_PRODUCT, Long.class, 2000L, Long.MAX_VALUE);
+    }
+
+    private static ShardingConfig.ProductRange range(long from, int shard) {
+        ShardingConfig.ProductRange range = new ShardingConfig.ProductRange();
+        range.setFrom(from);
+        range.setShard(shard);
+        return range;
+    }
+
+}
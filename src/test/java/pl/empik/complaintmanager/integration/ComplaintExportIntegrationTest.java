@@ -0,0 +1,127 @@
+package pl.empik.complaintmanager.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.service.ComplaintExportService;
+import pl.empik.complaintmanager.service.ExportFormat;
+
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ComplaintExportIntegrationTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long MAX_RETAINED_HEAP_BYTES = 64L * 1024 * 1024;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ComplaintExportService complaintExportService;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE complaints");
+    }
+
+    @Test
+    void shouldStreamMillionRowsWithoutRetainingThem() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO complaints (product_id, content, creation_date, complainant, country, claim_counter)
+                SELECT g, 'Complaint content ' || g, TIMESTAMP '2024-01-01' + g * INTERVAL '1 second', 'Complainant', 'PL', 1
+                FROM generate_series(1, ?) AS g
+                """, ROWS);
+
+        long baseline = usedHeapAfterGc();
+        AtomicLong midExport = new AtomicLong();
+        LineCountingOutputStream out = new LineCountingOutputStream(ROWS / 2, () -> midExport.set(usedHeapAfterGc()));
+
+        complaintExportService.export(null, null, null, ExportFormat.NDJSON, out);
+
+        assertThat(out.lines).isEqualTo(ROWS);
+        assertThat(midExport.get() - baseline).isLessThan(MAX_RETAINED_HEAP_BYTES);
+    }
+
+    @Test
+    void shouldExportCsvForProductAndDateRange() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO complaints (product_id, content, creation_date, complainant, country, claim_counter)
+                VALUES (1, 'Damaged, "badly"', TIMESTAMP '2024-01-10 10:00:00', 'John Doe', 'PL', 2),
+                       (1, 'Too old', TIMESTAMP '2023-12-31 23:59:59', 'Jane Doe', 'PL', 1),
+                       (2, 'Other product', TIMESTAMP '2024-01-10 10:00:00', 'John Doe', 'PL', 1)
+                """);
+
+        MvcResult result = mockMvc.perform(get("/api/complaints/export")
+                        .param("productId", "1")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(csv.lines()).hasSize(2);
+        assertThat(csv.lines().skip(1).findFirst()).hasValueSatisfying(line -> assertThat(line)
+                .endsWith(",1,\"Damaged, \"\"badly\"\"\",2024-01-10T10:00,John Doe,PL,2"));
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class LineCountingOutputStream extends OutputStream {
+
+        private final long probeAt;
+        private final Runnable probe;
+        private long lines;
+
+        LineCountingOutputStream(long probeAt, Runnable probe) {
+            this.probeAt = probeAt;
+            this.probe = probe;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines == probeAt) {
+                probe.run();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ComplaintFullTextSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+    }
+
+    @Test
+    void search_ShouldRankMatchesAndHighlightMatchedWords() throws Exception {
+        addComplaint(1L, "Jane Doe", "The book cover was damaged in transit and the cover is now torn.");
+        addComplaint(1L, "John Doe", "Delivery was late. The parcel was also slightly damaged.");
+        addComplaint(1L, "Anna Nowak", "Wrong colour of the notebook.");
+
+        mockMvc.perform(get("/api/complaints").param("q", "damaged cover"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", contains("Jane Doe")))
+                .andExpect(jsonPath("$.content[0].highlight", containsString("<mark>damaged</mark>")))
+                .andExpect(jsonPath("$.content[0].highlight", containsString("<mark>cover</mark>")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+
+        mockMvc.perform(get("/api/complaints").param("q", "damage"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", containsInAnyOrder("Jane Doe", "John Doe")));
+    }
+
+    @Test
+    void search_ShouldSupportOrAndNegation() throws Exception {
+        addComplaint(1L, "Jane Doe", "The book cover was damaged.");
+        addComplaint(1L, "John Doe", "Delivery was late.");
+
+        mockMvc.perform(get("/api/complaints").param("q", "late or damaged"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()", is(2)));
+
+        mockMvc.perform(get("/api/complaints").param("q", "delivery -late"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", empty()));
+    }
+
+    @Test
+    void search_ShouldPageThroughAllMatchesWithCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            addComplaint(1L, "Complainant " + i, "Late delivery " + "late ".repeat(i));
+        }
+        addComplaint(2L, "Other product", "Late delivery");
+
+        JsonNode firstPage = search("/api/complaints?q=late&productId=1&size=3");
+        assertThat(firstPage.get("hasNext").asBoolean()).isTrue();
+        JsonNode secondPage = search("/api/complaints?q=late&productId=1&size=3&cursor=" + firstPage.get("nextCursor").asText());
+        assertThat(secondPage.get("hasNext").asBoolean()).isFalse();
+
+        assertThat(firstPage.get("content").findValuesAsText("complainant"))
+                .containsExactly("Complainant 4", "Complainant 3", "Complainant 2");
+        assertThat(secondPage.get("content").findValuesAsText("complainant"))
+                .containsExactly("Complainant 1", "Complainant 0");
+    }
+
+    @Test
+    void search_WithFields_ShouldKeepHighlight() throws Exception {
+        addComplaint(1L, "Jane Doe", "The book cover was damaged.");
+
+        mockMvc.perform(get("/api/complaints").param("q", "damaged").param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].content").doesNotExist())
+                .andExpect(jsonPath("$.content[0].highlight", containsString("<mark>damaged</mark>")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void search_BlankQuery_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/complaints").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode search(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private void addComplaint(Long productId, String complainant, String content) {
+        complaintRepository.insertOrIncrementClaimCounter(productId, content, LocalDateTime.now(), complainant, "PL",
+                "127.0.0.1", Complaint.UNKNOWN_COUNTRY);
+    }
+
+}
@@ -8,20 +8,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import pl.empik.complaintmanager.domain.Complaint;
 import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.service.ComplaintService;
 import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
 import pl.empik.complaintmanager.web.model.UpdateComplaintRequestDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +57,12 @@ class ComplaintIntegrationTest {
     @Autowired
     private WireMockServer wireMockServer;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     void setUp() {
         complaintRepository.deleteAll();
@@ -104,6 +123,88 @@ class ComplaintIntegrationTest {
                 .andExpect(jsonPath("$.claimCounter", is(2)));
     }
 
+    @Test
+    void shouldCountConcurrentClaimsForSameComplaint() throws Exception {
+        int claims = 20;
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(1L);
+        requestDto.setContent("Concurrent complaint");
+        requestDto.setComplainant("John Doe");
+        String body = objectMapper.writeValueAsString(requestDto);
+
+        ExecutorService executor = Executors.newFixedThreadPool(claims);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < claims; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                mockMvc.perform(post("/api/complaints")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body)
+                                .header("ip", "127.0.0.1"))
+                        .andExpect(status().isCreated());
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(complaintRepository.findAll())
+                .singleElement()
+                .extracting(Complaint::getClaimCounter)
+                .isEqualTo(claims);
+    }
+
+    @Test
+    void shouldAddComplaintsInBatch() throws Exception {
+        createComplaint(1L, "John Doe");
+
+        String body = """
+                [
+                  {"productId": 1, "content": "Repeat", "complainant": "John Doe", "ip": "10.0.0.1"},
+                  {"productId": 2, "content": "New", "complainant": "Jane Doe", "ip": "10.0.0.2"},
+                  {"productId": 2, "content": "New again", "complainant": "Jane Doe", "ip": "10.0.0.2"}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/complaints/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received", is(3)))
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.incremented", is(2)));
+
+        assertThat(complaintRepository.findByProductIdAndComplainant(1L, "John Doe"))
+                .hasValueSatisfying(complaint -> assertThat(complaint.getClaimCounter()).isEqualTo(2));
+        assertThat(complaintRepository.findByProductIdAndComplainant(2L, "Jane Doe"))
+                .hasValueSatisfying(complaint -> {
+                    assertThat(complaint.getContent()).isEqualTo("New");
+                    assertThat(complaint.getCountry()).isEqualTo("US");
+                    assertThat(complaint.getClaimCounter()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void shouldAddComplaintsFromNdjsonStream() throws Exception {
+        String body = """
+                {"productId": 1, "content": "First", "complainant": "John Doe", "ip": "10.0.0.1"}
+                {"productId": 2, "content": "Second", "complainant": "Jane Doe", "ip": "10.0.0.2"}
+                """;
+
+        mockMvc.perform(post("/api/complaints/batch")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.received", is(2)))
+                .andExpect(jsonPath("$.created", is(2)));
+
+        assertThat(complaintRepository.count()).isEqualTo(2);
+    }
+
     @Test
     void shouldUpdateComplaintContent() throws Exception {
         Complaint complaint = new Complaint();
@@ -117,6 +218,7 @@ class ComplaintIntegrationTest {
 
         UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
         updateDto.setContent("Updated content");
+        updateDto.setVersion(complaint.getVersion());
 
         mockMvc.perform(put("/api/complaints/" + complaint.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -126,6 +228,62 @@ class ComplaintIntegrationTest {
                 .andExpect(jsonPath("$.content", is("Updated content")));
     }
 
+    @Test
+    void shouldRejectContentUpdateWithoutVersion() throws Exception {
+        Complaint complaint = createComplaint(1L, "John Doe");
+
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Blind edit");
+        mockMvc.perform(put("/api/complaints/" + complaint.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/complaints/" + complaint.getId()))
+                .andExpect(jsonPath("$.content", is("Test content")));
+    }
+
+    @Test
+    void shouldRejectContentUpdateWithStaleVersion() throws Exception {
+        Complaint complaint = createComplaint(1L, "John Doe");
+
+        UpdateComplaintRequestDto firstEdit = new UpdateComplaintRequestDto();
+        firstEdit.setContent("First edit");
+        firstEdit.setVersion(complaint.getVersion());
+        mockMvc.perform(put("/api/complaints/" + complaint.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(firstEdit)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(complaint.getVersion().intValue() + 1)));
+
+        UpdateComplaintRequestDto staleEdit = new UpdateComplaintRequestDto();
+        staleEdit.setContent("Stale edit");
+        staleEdit.setVersion(complaint.getVersion());
+        mockMvc.perform(put("/api/complaints/" + complaint.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(staleEdit)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/complaints/" + complaint.getId()))
+                .andExpect(jsonPath("$.content", is("First edit")));
+    }
+
+    @Test
+    void shouldKeepClaimIncrementsMadeDuringContentUpdate() throws Exception {
+        Complaint complaint = createComplaint(1L, "John Doe");
+        complaintRepository.incrementClaimCounter(1L, "John Doe");
+
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Updated content");
+        updateDto.setVersion(complaint.getVersion());
+        mockMvc.perform(put("/api/complaints/" + complaint.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Updated content")))
+                .andExpect(jsonPath("$.claimCounter", is(2)));
+    }
+
     @Test
     void shouldRetrieveComplaintById() throws Exception {
         Complaint complaint = new Complaint();
@@ -147,6 +305,59 @@ class ComplaintIntegrationTest {
                 .andExpect(jsonPath("$.claimCounter", is(1)));
     }
 
+    @Test
+    void shouldReturnNotModifiedForMatchingETag() throws Exception {
+        Complaint complaint = createComplaint(1L, "John Doe");
+
+        String eTag = mockMvc.perform(get("/api/complaints/" + complaint.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/complaints/" + complaint.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldChangeETagWhenCountryIsEnriched() throws Exception {
+        Complaint complaint = createComplaint(1L, "John Doe");
+
+        String eTag = mockMvc.perform(get("/api/complaints/" + complaint.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        jdbcTemplate.update("UPDATE complaints SET country = 'PL' WHERE id = ?", complaint.getId());
+        cacheManager.getCache(ComplaintService.COMPLAINTS_CACHE).evict(complaint.getId());
+
+        mockMvc.perform(get("/api/complaints/" + complaint.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.country", is("PL")))
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    @Test
+    void shouldRefreshCachedComplaintAfterUpdate() throws Exception {
+        Complaint complaint = createComplaint(1L, "John Doe");
+
+        String eTag = mockMvc.perform(get("/api/complaints/" + complaint.getId()))
+                .andExpect(jsonPath("$.content", is("Test content")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Updated content");
+        updateDto.setVersion(complaint.getVersion());
+        mockMvc.perform(put("/api/complaints/" + complaint.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/complaints/" + complaint.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Updated content")))
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
     @Test
     void shouldRetrieveAllComplaintsWithPagination() throws Exception {
         for (int i = 0; i < 15; i++) {
@@ -168,6 +379,27 @@ class ComplaintIntegrationTest {
                 .andExpect(jsonPath("$.number", is(0)));
     }
 
+    @Test
+    void shouldRetrieveAllComplaintsWithCursorPagination() throws Exception {
+        for (int i = 0; i < 15; i++) {
+            createComplaint(1L, "Complainant " + i);
+        }
+
+        String response = mockMvc.perform(get("/api/complaints?cursor=&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(10)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/complaints").param("cursor", nextCursor).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].complainant", is("Complainant 10")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
     @Test
     void shouldFilterComplaintsByProductIdAndComplainant() throws Exception {
         Complaint complaint1 = createComplaint(1L, "John Doe");
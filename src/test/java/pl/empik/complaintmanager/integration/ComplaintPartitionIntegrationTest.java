@@ -0,0 +1,186 @@
+package pl.empik.complaintmanager.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.config.ComplaintPartitionConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintPartitionRepository;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.service.ComplaintPartitionService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ComplaintPartitionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintPartitionRepository complaintPartitionRepository;
+
+    @Autowired
+    private ComplaintPartitionService complaintPartitionService;
+
+    @Autowired
+    private ComplaintPartitionConfig complaintPartitionConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        for (int month = 1; month <= 3; month++) {
+            complaintPartitionRepository.createPartition(LocalDate.of(2020, month, 1));
+        }
+    }
+
+    @Test
+    void complaintsShouldBeStoredInPartitionOfTheirMonth() {
+        Complaint complaint = addComplaint(1L, "John Doe", LocalDateTime.of(2020, 2, 14, 10, 0));
+
+        assertThat(partitionOf(complaint.getId())).isEqualTo("complaints_p202002");
+    }
+
+    @Test
+    void createPartition_ShouldMoveRowsFromDefaultPartition() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS complaints_p201906");
+        Complaint complaint = addComplaint(1L, "John Doe", LocalDateTime.of(2019, 6, 14, 10, 0));
+        assertThat(partitionOf(complaint.getId())).isEqualTo("complaints_default");
+
+        complaintPartitionRepository.createPartition(LocalDate.of(2019, 6, 1));
+
+        assertThat(partitionOf(complaint.getId())).isEqualTo("complaints_p201906");
+        assertThat(addComplaint(1L, "John Doe", LocalDateTime.of(2019, 6, 15, 10, 0)).getClaimCounter()).isEqualTo(2);
+        assertThat(complaintCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void sameComplainantInAnotherMonth_ShouldIncrementExistingComplaint() {
+        Complaint first = addComplaint(1L, "John Doe", LocalDateTime.of(2020, 1, 14, 10, 0));
+        Complaint second = addComplaint(1L, "John Doe", LocalDateTime.of(2020, 3, 14, 10, 0));
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(second.getClaimCounter()).isEqualTo(2);
+        assertThat(complaintCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void getAllComplaints_WithDateRange_ShouldReturnComplaintsFromThatRange() throws Exception {
+        addComplaint(1L, "January", LocalDateTime.of(2020, 1, 14, 10, 0));
+        addComplaint(1L, "February", LocalDateTime.of(2020, 2, 14, 10, 0));
+        addComplaint(1L, "March", LocalDateTime.of(2020, 3, 14, 10, 0));
+
+        mockMvc.perform(get("/api/complaints")
+                        .param("productId", "1")
+                        .param("from", "2020-02-01T00:00:00")
+                        .param("to", "2020-03-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", contains("February")))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+
+        mockMvc.perform(get("/api/complaints")
+                        .param("from", "2020-02-01T00:00:00")
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", contains("February", "March")));
+    }
+
+    @Test
+    void getAllComplaints_WithEmptyDateRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/complaints")
+                        .param("from", "2020-03-01T00:00:00")
+                        .param("to", "2020-02-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void dateRangeQuery_ShouldOnlyScanMatchingPartitions() {
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+                EXPLAIN SELECT * FROM complaints
+                WHERE creation_date >= '2020-02-01' AND creation_date < '2020-03-01'
+                """, String.class));
+
+        assertThat(plan)
+                .contains("complaints_p202002")
+                .doesNotContain("complaints_p202001", "complaints_p202003", "complaints_default");
+    }
+
+    @Test
+    void archiveExpiredPartitions_ShouldDumpAndDropPartitionsOutsideRetention(@TempDir Path archiveDirectory)
+            throws IOException {
+        addComplaint(1L, "January", LocalDateTime.of(2020, 1, 14, 10, 0));
+        addComplaint(1L, "March", LocalDateTime.of(2020, 3, 14, 10, 0));
+        complaintPartitionConfig.setRetentionMonths(1);
+        complaintPartitionConfig.setArchiveDirectory(archiveDirectory.toString());
+        List<Path> archives;
+        try {
+            archives = complaintPartitionService.archiveExpiredPartitions(LocalDate.of(2020, 4, 10));
+        } finally {
+            complaintPartitionConfig.setRetentionMonths(0);
+            complaintPartitionConfig.setArchiveDirectory(null);
+        }
+
+        Path january = archiveDirectory.resolve("complaints_p202001.csv.gz");
+        assertThat(archives).contains(january, archiveDirectory.resolve("complaints_p202002.csv.gz"));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(january))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .startsWith("id,product_id,content,creation_date,complainant,country,claim_counter,version")
+                    .contains("January");
+        }
+        assertThat(complaintPartitionRepository.findAttachedPartitions())
+                .doesNotContain("complaints_p202001", "complaints_p202002")
+                .contains("complaints_p202003");
+        assertThat(complaintPartitionRepository.findDetachedPartitions()).isEmpty();
+        assertThat(complaintCount(1L)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT complaint_count FROM complaint_stats WHERE product_id = 1", Long.class)).isEqualTo(1);
+        assertThat(addComplaint(1L, "January", LocalDateTime.of(2020, 3, 20, 10, 0)).getClaimCounter()).isEqualTo(1);
+    }
+
+    private Complaint addComplaint(Long productId, String complainant, LocalDateTime creationDate) {
+        return complaintRepository.insertOrIncrementClaimCounter(productId, "Complaint content", creationDate,
+                complainant, "PL", "127.0.0.1", Complaint.UNKNOWN_COUNTRY);
+    }
+
+    private String partitionOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM complaints WHERE id = ?", String.class, id);
+    }
+
+    private long complaintCount(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM complaints WHERE product_id = ?", Long.class, productId);
+    }
+
+}
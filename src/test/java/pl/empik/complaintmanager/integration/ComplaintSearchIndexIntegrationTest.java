@@ -0,0 +1,170 @@
+package pl.empik.complaintmanager.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.ComplaintFilter;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.domain.ComplaintSearchRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ComplaintSearchIndexIntegrationTest {
+
+    private static final List<CapturedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintSearchRepository complaintSearchRepository;
+
+    @Test
+    void complainantSearchShouldUseTrigramIndex() {
+        CapturedStatement statement = capture(() -> complaintRepository.findPage(
+                new ComplaintFilter(null, "doe", null, null), true, PageRequest.of(0, 20)));
+
+        assertThat(explain(statement))
+                .contains("_lower_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void productAndComplainantSearchShouldUseIndex() {
+        CapturedStatement statement = capture(() -> complaintRepository.findPage(
+                new ComplaintFilter(1L, "doe", null, null), true, PageRequest.of(0, 20)));
+
+        assertThat(explain(statement))
+                .containsAnyOf("_lower_idx", "_product_id_complainant_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void contentSearchShouldUseFullTextIndex() {
+        CapturedStatement statement = capture(() -> complaintSearchRepository.search("damaged cover",
+                new ComplaintFilter(null, null, null, null), null, null, 20, true));
+
+        assertThat(explain(statement))
+                .contains("_content_tsv_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    private CapturedStatement capture(Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        return STATEMENTS.stream()
+                .filter(statement -> statement.sql().toLowerCase().contains("from complaints"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No query on complaints was executed: " + STATEMENTS));
+    }
+
+    private String explain(CapturedStatement statement) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(), String.class,
+                    statement.parameters().values().toArray());
+            return String.join("\n", plan);
+        });
+    }
+
+    record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                            ? new StatementCapturingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+
+    }
+
+    static class StatementCapturingDataSource extends DelegatingDataSource {
+
+        StatementCapturingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                    new Class<?>[]{ConnectionProxy.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "getTargetConnection" -> connection;
+                        case "prepareStatement" ->
+                                capturing((PreparedStatement) invoke(connection, method, args), (String) args[0]);
+                        default -> invoke(connection, method, args);
+                    });
+        }
+
+        private static PreparedStatement capturing(PreparedStatement preparedStatement, String sql) {
+            CapturedStatement statement = new CapturedStatement(sql, new TreeMap<>());
+            STATEMENTS.add(statement);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer index) {
+                            statement.parameters().put(index, method.getName().equals("setNull") ? null : args[1]);
+                        }
+                        return invoke(preparedStatement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ComplaintStatsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        geoLocationCache.synchronous().invalidateAll();
+        wireMockServer.resetAll();
+        stubCountry("/10.7.0.1/country", "PL");
+        stubCountry("/10.7.1.1/country", "DE");
+    }
+
+    @Test
+    void getStats_ShouldCountComplaintsAndClaimsPerCountry() throws Exception {
+        addComplaint(1L, "John Doe", "10.7.0.1");
+        addComplaint(1L, "John Doe", "10.7.0.1");
+        addComplaint(1L, "Jane Doe", "10.7.1.1");
+        addComplaint(2L, "John Doe", "10.7.0.1");
+
+        mockMvc.perform(get("/api/complaints/stats").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId", is(1)))
+                .andExpect(jsonPath("$.complaintCount", is(2)))
+                .andExpect(jsonPath("$.claimCount", is(3)))
+                .andExpect(jsonPath("$.countries[*].country", contains("DE", "PL")))
+                .andExpect(jsonPath("$.countries[*].complaintCount", contains(1, 1)))
+                .andExpect(jsonPath("$.countries[*].claimCount", contains(1, 2)));
+    }
+
+    @Test
+    void getStats_ShouldFollowCountryChangesAndDeletes() throws Exception {
+        addComplaint(1L, "John Doe", "10.7.0.1");
+        addComplaint(1L, "Jane Doe", "10.7.0.1");
+
+        jdbcTemplate.update("UPDATE complaints SET country = 'DE' WHERE complainant = 'Jane Doe'");
+        jdbcTemplate.update("DELETE FROM complaints WHERE complainant = 'John Doe'");
+
+        mockMvc.perform(get("/api/complaints/stats").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complaintCount", is(1)))
+                .andExpect(jsonPath("$.claimCount", is(1)))
+                .andExpect(jsonPath("$.countries[*].country", contains("DE")));
+    }
+
+    @Test
+    void getStats_UnknownProduct_ShouldReturnEmptyStats() throws Exception {
+        mockMvc.perform(get("/api/complaints/stats").param("productId", "404"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complaintCount", is(0)))
+                .andExpect(jsonPath("$.countries", empty()));
+    }
+
+    @Test
+    void rebuildStats_ShouldRecomputeStatsFromComplaints() throws Exception {
+        addComplaint(1L, "John Doe", "10.7.0.1");
+        addComplaint(1L, "John Doe", "10.7.0.1");
+        jdbcTemplate.update("UPDATE complaint_stats SET complaint_count = 7, claim_count = 0");
+
+        mockMvc.perform(post("/api/complaints/stats/rebuild"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/complaints/stats").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complaintCount", is(1)))
+                .andExpect(jsonPath("$.claimCount", is(2)));
+    }
+
+    private void addComplaint(Long productId, String complainant, String ip) throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(productId);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant(complainant);
+
+        mockMvc.perform(post("/api/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .header("ip", ip))
+                .andExpect(status().isCreated());
+    }
+
+    private void stubCountry(String url, String country) {
+        wireMockServer.stubFor(WireMock.get(WireMock.urlEqualTo(url))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody(country)));
+    }
+
+}
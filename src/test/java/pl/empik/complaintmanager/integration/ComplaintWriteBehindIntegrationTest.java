@@ -0,0 +1,144 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.service.ClaimAccumulator;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+import pl.empik.complaintmanager.web.model.UpdateComplaintRequestDto;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"complaints.claims.writeBehind=true", "complaints.claims.flushInterval=PT1H"})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ComplaintWriteBehindIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ClaimAccumulator claimAccumulator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @BeforeEach
+    void setUp() {
+        claimAccumulator.flush();
+        claimAccumulator.flush();
+        complaintRepository.deleteAll();
+        geoLocationCache.synchronous().invalidateAll();
+        wireMockServer.resetAll();
+        wireMockServer.stubFor(WireMock.get(WireMock.urlEqualTo("/10.8.0.1/country"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("PL")));
+    }
+
+    @Test
+    void repeatClaims_ShouldBeVisibleBeforeFlushAndWrittenOnceOnFlush() throws Exception {
+        addComplaint("John Doe").andExpect(jsonPath("$.claimCounter", is(1)));
+        addComplaint("John Doe").andExpect(jsonPath("$.claimCounter", is(2)));
+        addComplaint("John Doe").andExpect(jsonPath("$.claimCounter", is(3)));
+        addComplaint("John Doe").andExpect(jsonPath("$.claimCounter", is(4)));
+
+        assertThat(storedClaimCounter("John Doe")).isEqualTo(2);
+        mockMvc.perform(get("/api/complaints").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].claimCounter", contains(4)));
+        mockMvc.perform(get("/api/complaints/stats").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.claimCount", is(4)))
+                .andExpect(jsonPath("$.countries[*].claimCount", contains(4)));
+
+        claimAccumulator.flush();
+
+        assertThat(storedClaimCounter("John Doe")).isEqualTo(4);
+        mockMvc.perform(get("/api/complaints").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].claimCounter", contains(4)));
+        addComplaint("John Doe").andExpect(jsonPath("$.claimCounter", is(5)));
+    }
+
+    @Test
+    void bufferedClaim_AfterContentUpdate_ShouldReturnAndCacheCurrentContent() throws Exception {
+        addComplaint("John Doe");
+        addComplaint("John Doe");
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM complaints WHERE complainant = ?", Long.class, "John Doe");
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Updated content");
+        updateDto.setVersion(0L);
+        mockMvc.perform(put("/api/complaints/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        addComplaint("John Doe")
+                .andExpect(jsonPath("$.content", is("Updated content")))
+                .andExpect(jsonPath("$.claimCounter", is(3)));
+
+        mockMvc.perform(get("/api/complaints/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Updated content")))
+                .andExpect(jsonPath("$.claimCounter", is(3)));
+    }
+
+    private ResultActions addComplaint(String complainant) throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(1L);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant(complainant);
+
+        return mockMvc.perform(post("/api/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .header("ip", "10.8.0.1"))
+                .andExpect(status().isCreated());
+    }
+
+    private int storedClaimCounter(String complainant) {
+        return jdbcTemplate.queryForObject("SELECT claim_counter FROM complaints WHERE complainant = ?",
+                Integer.class, complainant);
+    }
+
+}
@@ -0,0 +1,151 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.service.CountryEnrichmentService;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "geolocation.enrichment.async=true")
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class CountryEnrichmentIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private CircuitBreaker geoLocationCircuitBreaker;
+
+    @Autowired
+    private CountryEnrichmentService countryEnrichmentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM country_enrichment_outbox");
+        wireMockServer.resetAll();
+        geoLocationCircuitBreaker.reset();
+    }
+
+    @Test
+    void addComplaint_ShouldNotWaitForGeolocation() throws Exception {
+        stubCountry("/10.6.0.1/country", "PL", 3000);
+
+        long start = System.nanoTime();
+        addComplaint(1L, "John Doe", "10.6.0.1")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.country", is(Complaint.UNKNOWN_COUNTRY)));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+        wireMockServer.verify(0, getRequestedFor(urlPathMatching("/.*")));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM country_enrichment_outbox", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void enrichPending_ShouldResolveEachIpOnceAndDrainOutbox() throws Exception {
+        stubCountry("/10.7.0.1/country", "PL", 0);
+        stubCountry("/10.7.1.1/country", "DE", 0);
+        addComplaint(1L, "John Doe", "10.7.0.1").andExpect(status().isCreated());
+        addComplaint(2L, "John Doe", "10.7.0.1").andExpect(status().isCreated());
+        addComplaint(3L, "Jane Doe", "10.7.1.1").andExpect(status().isCreated());
+
+        countryEnrichmentService.enrichPending();
+
+        assertThat(complaintRepository.findAll())
+                .extracting(Complaint::getProductId, Complaint::getCountry)
+                .containsExactlyInAnyOrder(
+                        tuple(1L, "PL"),
+                        tuple(2L, "PL"),
+                        tuple(3L, "DE"));
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/10.7.0.1/country")));
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/10.7.1.1/country")));
+        assertThat(meterRegistry.get("country.enrichment.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void enrichPending_ProviderFailing_ShouldKeepComplaintQueuedWithBackoff() throws Exception {
+        wireMockServer.stubFor(WireMock.get(urlEqualTo("/10.8.0.1/country"))
+                .willReturn(WireMock.aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+        addComplaint(1L, "John Doe", "10.8.0.1").andExpect(status().isCreated());
+
+        countryEnrichmentService.enrichPending();
+
+        Map<String, Object> pending = jdbcTemplate.queryForMap(
+                "SELECT attempts, next_attempt_at > now() AS delayed FROM country_enrichment_outbox");
+        assertThat(pending).containsEntry("attempts", 1).containsEntry("delayed", true);
+        assertThat(complaintRepository.findAll()).extracting(Complaint::getCountry)
+                .containsExactly(Complaint.UNKNOWN_COUNTRY);
+        assertThat(meterRegistry.get("country.enrichment.queue.depth").gauge().value()).isEqualTo(1);
+    }
+
+    private ResultActions addComplaint(Long productId, String complainant, String ipAddress) throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(productId);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant(complainant);
+
+        return mockMvc.perform(post("/api/complaints")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDto))
+                .header("ip", ipAddress));
+    }
+
+    private void stubCountry(String url, String country, int delayMillis) {
+        wireMockServer.stubFor(WireMock.get(urlEqualTo(url))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody(country)
+                        .withFixedDelay(delayMillis)));
+    }
+
+}
@@ -0,0 +1,202 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.service.CountryEnrichmentService;
+import pl.empik.complaintmanager.service.GeoLocationService;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "geolocation.readTimeout=1500",
+        "geolocation.resilience.slidingWindowSize=2",
+        "geolocation.resilience.minimumNumberOfCalls=2",
+        "geolocation.resilience.slowCallDurationThreshold=10s",
+        "geolocation.resilience.waitDurationInOpenState=1h",
+        "geolocation.resilience.maxConcurrentCalls=2"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class GeoLocationResilienceIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private GeoLocationService geoLocationService;
+
+    @Autowired
+    private CountryEnrichmentService countryEnrichmentService;
+
+    @Autowired
+    private CircuitBreaker geoLocationCircuitBreaker;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM country_enrichment_outbox");
+        wireMockServer.resetAll();
+        geoLocationCircuitBreaker.reset();
+        geoLocationCache.synchronous().invalidateAll();
+    }
+
+    @Test
+    void concurrentLookupsForSameIp_ShouldShareSingleRequest() throws Exception {
+        stubCountry("/10.1.0.1/country", "PL", 300);
+
+        List<String> countries = lookUpConcurrently(List.of(
+                "10.1.0.1", "10.1.0.1", "10.1.0.1", "10.1.0.1", "10.1.0.1", "10.1.0.1", "10.1.0.1", "10.1.0.1"));
+
+        assertThat(countries).containsOnly("PL");
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo("/10.1.0.1/country")));
+    }
+
+    @Test
+    void slowProvider_ShouldFallBackToUnknownCountryAfterReadTimeout() {
+        stubCountry("/10.2.0.1/country", "PL", 5000);
+
+        long start = System.nanoTime();
+        String country = geoLocationService.getCountryFromIp("10.2.0.1");
+
+        assertThat(country).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(4000);
+    }
+
+    @Test
+    void faultyProvider_ShouldOpenCircuitBreakerAndStopCallingIt() {
+        wireMockServer.stubFor(WireMock.get(urlPathMatching("/10\\.3\\..*"))
+                .willReturn(WireMock.aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        assertThat(geoLocationService.getCountryFromIp("10.3.0.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+        assertThat(geoLocationService.getCountryFromIp("10.3.1.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+        assertThat(geoLocationCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(geoLocationService.getCountryFromIp("10.3.2.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+        wireMockServer.verify(0, getRequestedFor(urlEqualTo("/10.3.2.1/country")));
+    }
+
+    @Test
+    void saturatedProvider_ShouldRejectCallsBeyondBulkhead() throws Exception {
+        wireMockServer.stubFor(WireMock.get(urlPathMatching("/10\\.4\\..*"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("PL")
+                        .withFixedDelay(700)));
+
+        List<String> countries = lookUpConcurrently(List.of("10.4.0.1", "10.4.1.1", "10.4.2.1", "10.4.3.1"));
+
+        assertThat(countries).filteredOn("PL"::equals).hasSize(2);
+        assertThat(countries).filteredOn(Complaint.UNKNOWN_COUNTRY::equals).hasSize(2);
+        wireMockServer.verify(2, getRequestedFor(urlPathMatching("/10\\.4\\..*")));
+    }
+
+    @Test
+    void addComplaint_CircuitBreakerOpen_ShouldStoreUnknownCountryAndEnrichLater() throws Exception {
+        geoLocationCircuitBreaker.transitionToForcedOpenState();
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(1L);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant("John Doe");
+
+        String response = mockMvc.perform(post("/api/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .header("ip", "10.5.0.1"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.country", is(Complaint.UNKNOWN_COUNTRY)))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+        wireMockServer.verify(0, getRequestedFor(urlPathMatching("/.*")));
+
+        geoLocationCircuitBreaker.reset();
+        stubCountry("/10.5.0.1/country", "PL", 0);
+        countryEnrichmentService.enrichPending();
+
+        mockMvc.perform(get("/api/complaints/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.country", is("PL")));
+    }
+
+    private void stubCountry(String url, String country, int delayMillis) {
+        wireMockServer.stubFor(WireMock.get(urlEqualTo(url))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody(country)
+                        .withFixedDelay(delayMillis)));
+    }
+
+    private List<String> lookUpConcurrently(List<String> ipAddresses) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ipAddresses.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> lookups = new ArrayList<>();
+        for (String ipAddress : ipAddresses) {
+            lookups.add(executor.submit(() -> {
+                start.await();
+                return geoLocationService.getCountryFromIp(ipAddress);
+            }));
+        }
+        start.countDown();
+
+        List<String> countries = new ArrayList<>();
+        for (Future<String> lookup : lookups) {
+            countries.add(lookup.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return countries;
+    }
+
+}
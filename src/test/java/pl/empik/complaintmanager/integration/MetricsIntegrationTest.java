@@ -0,0 +1,128 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        geoLocationCache.synchronous().invalidateAll();
+        wireMockServer.resetAll();
+        wireMockServer.stubFor(WireMock.get(WireMock.urlPathMatching("/[^/]+/country"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("PL")));
+    }
+
+    @Test
+    void addComplaint_ShouldRecordClaimGeolocationAndRepositoryMetrics() throws Exception {
+        double newClaims = counter("new");
+        double repeatClaims = counter("repeat");
+        long requests = postRequests();
+
+        addComplaint();
+        addComplaint();
+
+        assertThat(counter("new")).isEqualTo(newClaims + 1);
+        assertThat(counter("repeat")).isEqualTo(repeatClaims + 1);
+        assertThat(meterRegistry.get("geolocation.lookups").tag("outcome", "resolved").timer().count()).isPositive();
+        assertThat(meterRegistry.get("http.client.requests").tag("status", "200").timer().count()).isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "ComplaintRepository")
+                .tag("method", "insertOrIncrementClaimCounter")
+                .timer().count()).isPositive();
+        assertThat(postRequests()).isEqualTo(requests + 2);
+        assertThat(meterRegistry.get("hikaricp.connections.active").gauge()).isNotNull();
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeLatencyHistograms() throws Exception {
+        addComplaint();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("quantile=\"0.99\"")))
+                .andExpect(content().string(containsString("geolocation_lookups_seconds_bucket{")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("complaints_claims_total{")))
+                .andExpect(content().string(containsString("hikaricp_connections")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"geoLocation\"")));
+    }
+
+    private void addComplaint() throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(1L);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant("John Doe");
+
+        mockMvc.perform(post("/api/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .header("ip", "10.6.0.1"))
+                .andExpect(status().isCreated());
+    }
+
+    private double counter(String type) {
+        var counter = meterRegistry.find("complaints.claims").tag("type", type).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long postRequests() {
+        var timer = meterRegistry.find("http.server.requests").tag("uri", "/api/complaints").tag("method", "POST").timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
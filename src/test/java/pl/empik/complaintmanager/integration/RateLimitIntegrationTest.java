@@ -0,0 +1,118 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "complaints.rate-limit.enabled=true",
+        "complaints.rate-limit.endpoints.add.ip.capacity=3",
+        "complaints.rate-limit.endpoints.add.ip.period=PT1H",
+        "complaints.rate-limit.endpoints.add.complainant.capacity=2",
+        "complaints.rate-limit.endpoints.add.complainant.period=PT1H",
+        "complaints.rate-limit.endpoints.search.ip.capacity=1",
+        "complaints.rate-limit.endpoints.search.ip.period=PT1H"})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        geoLocationCache.synchronous().invalidateAll();
+        wireMockServer.resetAll();
+        wireMockServer.stubFor(WireMock.get(WireMock.urlPathMatching("/[^/]+/country"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("PL")));
+    }
+
+    @Test
+    void addComplaint_IpOverLimit_ShouldReturnTooManyRequests() throws Exception {
+        addComplaint("10.9.0.1", "John Doe").andExpect(status().isCreated());
+        addComplaint("10.9.0.1", "Jane Doe").andExpect(status().isCreated());
+        addComplaint("10.9.0.1", "Jack Doe").andExpect(status().isCreated());
+
+        addComplaint("10.9.0.1", "Jill Doe")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1200"));
+        addComplaint("10.9.0.2", "Jill Doe").andExpect(status().isCreated());
+    }
+
+    @Test
+    void addComplaint_ComplainantOverLimit_ShouldReturnTooManyRequestsFromAnyIp() throws Exception {
+        addComplaint("10.9.1.1", "Joan Doe").andExpect(status().isCreated());
+        addComplaint("10.9.1.2", "Joan Doe").andExpect(status().isCreated());
+
+        addComplaint("10.9.1.3", "Joan Doe")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void searchComplaints_OverLimit_ShouldReturnTooManyRequests() throws Exception {
+        mockMvc.perform(get("/api/complaints").param("q", "damaged").with(request -> {
+                    request.setRemoteAddr("10.9.2.1");
+                    return request;
+                }))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/complaints").param("q", "damaged").with(request -> {
+                    request.setRemoteAddr("10.9.2.1");
+                    return request;
+                }))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private ResultActions addComplaint(String ip, String complainant) throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(1L);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant(complainant);
+
+        return mockMvc.perform(post("/api/complaints")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDto))
+                .header("ip", ip));
+    }
+
+}
@@ -0,0 +1,154 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.jdbc.ContainerDatabaseDriver;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.service.ComplaintService;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "complaints.replicas.enabled=true",
+        "complaints.replicas.urls=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "complaints.replicas.maximumPoolSize=2"})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:tc:postgresql:16:///replicadb?TC_DAEMON=true";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(
+            new SimpleDriverDataSource(new ContainerDatabaseDriver(), REPLICA_URL));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(replica.getDataSource()).load().migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        complaintRepository.deleteAll();
+        replica.update("DELETE FROM complaints");
+        replica.update("""
+                INSERT INTO complaints (product_id, content, creation_date, complainant, country, claim_counter, version)
+                VALUES (1, 'Replica complaint', now(), 'Replica Doe', 'PL', 1, 0)
+                """);
+        geoLocationCache.synchronous().invalidateAll();
+        wireMockServer.resetAll();
+        wireMockServer.stubFor(WireMock.get(WireMock.urlPathMatching("/[^/]+/country"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("PL")));
+    }
+
+    @Test
+    void readOnlyQueries_ShouldBeServedByReplica() throws Exception {
+        addComplaint("John Doe");
+
+        mockMvc.perform(get("/api/complaints").param("productId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", contains("Replica Doe")));
+        mockMvc.perform(get("/api/complaints").param("productId", "1").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", contains("Replica Doe")));
+    }
+
+    @Test
+    void writes_ShouldGoToPrimaryOnly() throws Exception {
+        addComplaint("John Doe");
+
+        assertThat(jdbcTemplate.queryForList("SELECT complainant FROM complaints", String.class))
+                .containsExactly("John Doe");
+        assertThat(replica.queryForList("SELECT complainant FROM complaints", String.class))
+                .containsExactly("Replica Doe");
+    }
+
+    @Test
+    void readsAfterOwnWrite_ShouldBeServedByPrimary() throws Exception {
+        Cookie recentWrite = addComplaint("John Doe");
+
+        mockMvc.perform(get("/api/complaints").param("productId", "1").cookie(recentWrite))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].complainant", contains("John Doe")));
+    }
+
+    @Test
+    void complaintByIdCacheMiss_ShouldBeLoadedFromPrimary() throws Exception {
+        addComplaint("John Doe");
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM complaints", Long.class);
+        cacheManager.getCache(ComplaintService.COMPLAINTS_CACHE).evict(id);
+
+        mockMvc.perform(get("/api/complaints/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complainant", is("John Doe")));
+    }
+
+    private Cookie addComplaint(String complainant) throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(1L);
+        requestDto.setContent("Test complaint");
+        requestDto.setComplainant(complainant);
+
+        return mockMvc.perform(post("/api/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .header("ip", "10.10.0.1"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().maxAge("complaints-recent-write", 5))
+                .andReturn().getResponse().getCookie("complaints-recent-write");
+    }
+
+}
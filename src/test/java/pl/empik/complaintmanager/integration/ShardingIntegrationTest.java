@@ -0,0 +1,175 @@
+package pl.empik.complaintmanager.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.jdbc.ContainerDatabaseDriver;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
+import pl.empik.complaintmanager.web.model.UpdateComplaintRequestDto;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "complaints.sharding.enabled=true",
+        "complaints.sharding.shards[0].url=" + ShardingIntegrationTest.SHARD_URL,
+        "complaints.sharding.productRanges[0].from=1000",
+        "complaints.sharding.productRanges[0].shard=1",
+        "complaints.sharding.maximumPoolSize=2"})
+@AutoConfigureMockMvc
+@Testcontainers
+@ActiveProfiles("test")
+@Import(WireMockConfig.class)
+class ShardingIntegrationTest {
+
+    static final String SHARD_URL = "jdbc:tc:postgresql:16:///sharddb?TC_DAEMON=true";
+
+    private static final JdbcTemplate shard = new JdbcTemplate(
+            new SimpleDriverDataSource(new ContainerDatabaseDriver(), SHARD_URL));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @Autowired
+    private AsyncCache<String, Optional<String>> geoLocationCache;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM complaints");
+        shard.update("DELETE FROM complaints");
+        geoLocationCache.synchronous().invalidateAll();
+        wireMockServer.resetAll();
+        wireMockServer.stubFor(WireMock.get(WireMock.urlPathMatching("/[^/]+/country"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("PL")));
+    }
+
+    @Test
+    void addComplaint_ShouldBeStoredOnShardOwningProduct() throws Exception {
+        addComplaint(1L, "John Doe", "Damaged cover");
+        addComplaint(1000L, "John Doe", "Damaged cover");
+        addComplaint(1000L, "John Doe", "Damaged cover");
+
+        assertThat(jdbcTemplate.queryForList("SELECT product_id FROM complaints", Long.class)).containsExactly(1L);
+        assertThat(shard.queryForList("SELECT claim_counter FROM complaints WHERE product_id = 1000", Integer.class))
+                .containsExactly(2);
+    }
+
+    @Test
+    void complaintIds_ShouldEncodeOwningShard() throws Exception {
+        long first = addComplaint(1L, "John Doe", "Damaged cover").get("id").asLong();
+        long second = addComplaint(1000L, "John Doe", "Damaged cover").get("id").asLong();
+
+        assertThat((first >>> 12) & 1023).isZero();
+        assertThat((second >>> 12) & 1023).isEqualTo(1);
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Missing pages");
+        updateDto.setVersion(0L);
+
+        mockMvc.perform(get("/api/complaints/" + second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId", is(1000)));
+        mockMvc.perform(put("/api/complaints/" + second)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+        assertThat(shard.queryForObject("SELECT content FROM complaints WHERE id = ?", String.class, second))
+                .isEqualTo("Missing pages");
+    }
+
+    @Test
+    void complainantQuery_ShouldMergePagesAcrossShards() throws Exception {
+        addComplaint(1L, "John Doe", "Damaged cover");
+        addComplaint(1000L, "John Doe", "Damaged cover");
+        addComplaint(2L, "Jane Roe", "Damaged cover");
+        addComplaint(1001L, "John Doe", "Damaged cover");
+
+        mockMvc.perform(get("/api/complaints").param("complainant", "john")
+                        .param("sort", "creationDate").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(3)))
+                .andExpect(jsonPath("$.content[*].productId", contains(1001)));
+
+        JsonNode firstPage = list("/api/complaints?complainant=john&cursor=&size=2");
+        JsonNode secondPage = list("/api/complaints?complainant=john&size=2&cursor=" + firstPage.get("nextCursor").asText());
+        assertThat(firstPage.get("content").findValuesAsText("productId")).containsExactly("1", "1000");
+        assertThat(secondPage.get("content").findValuesAsText("productId")).containsExactly("1001");
+        assertThat(secondPage.get("hasNext").asBoolean()).isFalse();
+    }
+
+    @Test
+    void search_ShouldMergeMatchesAcrossShards() throws Exception {
+        addComplaint(1L, "John Doe", "Damaged cover");
+        addComplaint(1000L, "Jane Roe", "Damaged cover and damaged pages");
+
+        JsonNode matches = list("/api/complaints?q=damaged");
+
+        assertThat(matches.get("content").findValuesAsText("complainant")).containsExactlyInAnyOrder("Jane Roe", "John Doe");
+    }
+
+    @Test
+    void getStats_ShouldReadOwningShard() throws Exception {
+        addComplaint(1000L, "John Doe", "Damaged cover");
+        addComplaint(1000L, "Jane Roe", "Damaged cover");
+
+        mockMvc.perform(get("/api/complaints/stats").param("productId", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.complaintCount", is(2)));
+    }
+
+    private JsonNode addComplaint(Long productId, String complainant, String content) throws Exception {
+        ComplaintRequestDto requestDto = new ComplaintRequestDto();
+        requestDto.setProductId(productId);
+        requestDto.setContent(content);
+        requestDto.setComplainant(complainant);
+
+        String body = mockMvc.perform(post("/api/complaints")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto))
+                        .header("ip", "10.11.0.1"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode list(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+}
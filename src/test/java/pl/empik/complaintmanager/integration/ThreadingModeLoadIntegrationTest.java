@@ -0,0 +1,94 @@
+package pl.empik.complaintmanager.integration;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.empik.complaintmanager.ComplaintManagerApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThreadingModeLoadIntegrationTest {
+
+    private static final int REQUESTS = 200;
+    private static final int TOMCAT_THREADS = 20;
+    private static final int GEOLOCATION_DELAY_MILLIS = 200;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlPathMatching("/[^/]+/country"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("US")
+                        .withFixedDelay(GEOLOCATION_DELAY_MILLIS)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void platformThreads_ShouldServeEveryConcurrentRequestUnderSlowGeolocation() throws Exception {
+        assertThat(runLoad(false)).isEqualTo(REQUESTS);
+    }
+
+    @Test
+    void virtualThreads_ShouldServeEveryConcurrentRequestUnderSlowGeolocation() throws Exception {
+        assertThat(runLoad(true)).isEqualTo(REQUESTS);
+    }
+
+    private long runLoad(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ComplaintManagerApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--wiremock.server.port=" + wireMockServer.port());
+             HttpClient client = HttpClient.newHttpClient();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/complaints");
+
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .header("ip", "10.0." + i + ".1")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"productId\": " + i + ", \"content\": \"Load\", \"complainant\": \"Load " + i + "\"}"))
+                        .build();
+                statuses.add(executor.submit(() -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertThat(status.get()).isEqualTo(201);
+            }
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            long stored = jdbcTemplate.queryForObject("SELECT count(*) FROM complaints", Long.class);
+            jdbcTemplate.execute("TRUNCATE complaints");
+            return stored;
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.empik.complaintmanager.config.ComplaintClaimsConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintJdbcRepository;
+import pl.empik.complaintmanager.domain.ComplaintKey;
+import pl.empik.complaintmanager.domain.ComplaintView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClaimAccumulatorTest {
+
+    private static final LocalDateTime CREATION_DATE = LocalDateTime.of(2024, 9, 7, 10, 30);
+    private static final ComplaintKey KEY = new ComplaintKey(1L, "John Doe");
+
+    @Mock
+    private ComplaintJdbcRepository complaintJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ComplaintClaimsConfig config;
+    private ClaimAccumulator claimAccumulator;
+
+    @BeforeEach
+    void setUp() {
+        config = new ComplaintClaimsConfig();
+        config.setWriteBehind(true);
+        claimAccumulator = new ClaimAccumulator(complaintJdbcRepository, config, transactionManager,
+                new ComplaintShards(new ShardingConfig(), null), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void claim_UnknownKey_ShouldNotBeBuffered() {
+        assertThat(claimAccumulator.claim(1L, "John Doe")).isEmpty();
+    }
+
+    @Test
+    void claim_FirstClaim_ShouldNotRegisterKey() {
+        claimAccumulator.register(complaint(1));
+
+        assertThat(claimAccumulator.claim(1L, "John Doe")).isEmpty();
+    }
+
+    @Test
+    void claim_RegisteredRepeatClaim_ShouldCountInMemoryAndMergeIntoReads() {
+        claimAccumulator.register(complaint(2));
+
+        assertThat(claimAccumulator.claim(1L, "John Doe")).contains(1L);
+        assertThat(claimAccumulator.claim(1L, "John Doe")).contains(1L);
+
+        assertThat(claimAccumulator.merge(view(2)).claimCounter()).isEqualTo(4);
+        assertThat(claimAccumulator.pendingByComplaint(1L)).containsExactly(Map.entry(1L, 2L));
+        assertThat(claimAccumulator.pendingByComplaint(2L)).isEmpty();
+        verifyNoInteractions(complaintJdbcRepository);
+    }
+
+    @Test
+    void claim_WriteBehindDisabled_ShouldNotBuffer() {
+        config.setWriteBehind(false);
+        claimAccumulator = new ClaimAccumulator(complaintJdbcRepository, config, transactionManager,
+                new ComplaintShards(new ShardingConfig(), null), new SimpleMeterRegistry());
+
+        claimAccumulator.register(complaint(2));
+
+        assertThat(claimAccumulator.claim(1L, "John Doe")).isEmpty();
+    }
+
+    @Test
+    void claim_MaxKeysReached_ShouldNotRegisterMoreKeys() {
+        config.setMaxKeys(1);
+        claimAccumulator.register(complaint(2));
+        Complaint other = complaint(2);
+        other.setComplainant("Jane Doe");
+
+        claimAccumulator.register(other);
+
+        assertThat(claimAccumulator.claim(1L, "John Doe")).isPresent();
+        assertThat(claimAccumulator.claim(1L, "Jane Doe")).isEmpty();
+    }
+
+    @Test
+    void flush_ShouldWritePendingDeltasOnceAndKeepHotKeys() {
+        claimAccumulator.register(complaint(2));
+        claimAccumulator.claim(1L, "John Doe");
+        claimAccumulator.claim(1L, "John Doe");
+
+        claimAccumulator.flush();
+
+        verify(complaintJdbcRepository).addClaims(Map.of(KEY, 2));
+        assertThat(claimAccumulator.merge(view(4)).claimCounter()).isEqualTo(4);
+        assertThat(claimAccumulator.claim(1L, "John Doe")).contains(1L);
+        assertThat(claimAccumulator.merge(view(4)).claimCounter()).isEqualTo(5);
+    }
+
+    @Test
+    void flush_IdleKey_ShouldBeEvicted() {
+        claimAccumulator.register(complaint(2));
+
+        claimAccumulator.flush();
+
+        assertThat(claimAccumulator.claim(1L, "John Doe")).isEmpty();
+        verify(complaintJdbcRepository, never()).addClaims(anyMap());
+    }
+
+    @Test
+    void flush_DatabaseFailure_ShouldKeepDeltasAndStopBufferingUntilNextSuccess() {
+        claimAccumulator.register(complaint(2));
+        claimAccumulator.claim(1L, "John Doe");
+        when(complaintJdbcRepository.addClaims(Map.of(KEY, 1))).thenThrow(new QueryTimeoutException("timeout"));
+
+        claimAccumulator.flush();
+
+        assertThat(claimAccumulator.claim(1L, "John Doe")).isEmpty();
+        assertThat(claimAccumulator.merge(view(2)).claimCounter()).isEqualTo(3);
+
+        doReturn(1).when(complaintJdbcRepository).addClaims(Map.of(KEY, 1));
+        claimAccumulator.flush();
+
+        assertThat(claimAccumulator.merge(view(3)).claimCounter()).isEqualTo(3);
+        assertThat(claimAccumulator.pendingClaims()).isZero();
+    }
+
+    @Test
+    void shutdown_ShouldFlushEveryConcurrentClaim() throws Exception {
+        AtomicLong flushed = new AtomicLong();
+        when(complaintJdbcRepository.addClaims(anyMap())).thenAnswer(invocation -> {
+            Map<ComplaintKey, Integer> claims = invocation.getArgument(0);
+            flushed.addAndGet(claims.getOrDefault(KEY, 0));
+            return claims.size();
+        });
+        claimAccumulator.register(complaint(2));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = IntStream.range(0, 8)
+                    .mapToObj(thread -> executor.submit(() -> {
+                        long accepted = 0;
+                        for (int i = 0; i < 10_000; i++) {
+                            if (claimAccumulator.claim(1L, "John Doe").isPresent()) {
+                                accepted++;
+                            }
+                            if (i % 1_000 == 999) {
+                                claimAccumulator.flush();
+                            }
+                        }
+                        return accepted;
+                    }))
+                    .toList();
+            long accepted = 0;
+            for (Future<Long> result : results) {
+                accepted += result.get();
+            }
+
+            claimAccumulator.shutdown();
+
+            assertThat(flushed.get()).isEqualTo(accepted);
+            assertThat(claimAccumulator.pendingClaims()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Complaint complaint(int claimCounter) {
+        Complaint complaint = new Complaint();
+        complaint.setId(1L);
+        complaint.setProductId(1L);
+        complaint.setContent("Content");
+        complaint.setCreationDate(CREATION_DATE);
+        complaint.setComplainant("John Doe");
+        complaint.setCountry("PL");
+        complaint.setClaimCounter(claimCounter);
+        complaint.setVersion(0L);
+        return complaint;
+    }
+
+    private static ComplaintView view(int claimCounter) {
+        return new ComplaintView(1L, 1L, "Content", CREATION_DATE, "John Doe", "PL", claimCounter, 0L);
+    }
+
+}
@@ -0,0 +1,163 @@
+package pl.empik.complaintmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintJdbcRepository;
+import pl.empik.complaintmanager.domain.ComplaintKey;
+import pl.empik.complaintmanager.web.model.ComplaintBatchItemDto;
+import pl.empik.complaintmanager.web.model.ComplaintBatchResponseDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintBatchServiceTest {
+
+    @Mock
+    private ComplaintJdbcRepository complaintJdbcRepository;
+
+    @Mock
+    private GeoLocationService geoLocationService;
+
+    @Spy
+    private GeoLocationConfig geoLocationConfig = new GeoLocationConfig();
+
+    @Spy
+    private ComplaintShards complaintShards = new ComplaintShards(new ShardingConfig(), null);
+
+    @InjectMocks
+    private ComplaintBatchService complaintBatchService;
+
+    @Captor
+    private ArgumentCaptor<List<Complaint>> newComplaintsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Map<ComplaintKey, Integer>> claimIncrementsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Map<ComplaintKey, String>> pendingCountryIpsCaptor;
+
+    @Test
+    void addComplaints_ShouldGeolocateDistinctIpsOfNewComplaintsOnly() {
+        when(complaintJdbcRepository.findExistingKeys(any()))
+                .thenReturn(Set.of(new ComplaintKey(1L, "John Doe")));
+        when(geoLocationService.getCountryFromIp("10.0.0.1")).thenReturn("PL");
+
+        ComplaintBatchResponseDto result = complaintBatchService.addComplaints(List.of(
+                item(1L, "John Doe", "10.0.0.9"),
+                item(1L, "John Doe", "10.0.0.9"),
+                item(2L, "Jane Doe", "10.0.0.1"),
+                item(2L, "Jane Doe", "10.0.0.1"),
+                item(3L, "Jane Doe", "10.0.0.1")
+        ).iterator());
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getIncremented()).isEqualTo(3);
+
+        verify(geoLocationService, times(1)).getCountryFromIp("10.0.0.1");
+        verify(geoLocationService, never()).getCountryFromIp("10.0.0.9");
+        verify(complaintJdbcRepository).saveBatch(newComplaintsCaptor.capture(), claimIncrementsCaptor.capture(),
+                pendingCountryIpsCaptor.capture());
+
+        assertThat(newComplaintsCaptor.getValue())
+                .extracting(Complaint::getProductId, Complaint::getCountry, Complaint::getClaimCounter)
+                .containsExactly(tuple(2L, "PL", 2), tuple(3L, "PL", 1));
+        assertThat(claimIncrementsCaptor.getValue())
+                .containsExactly(Map.entry(new ComplaintKey(1L, "John Doe"), 2));
+        assertThat(pendingCountryIpsCaptor.getValue()).isEmpty();
+    }
+
+    @Test
+    void addComplaints_GeolocationUnavailable_ShouldSavePendingCountries() {
+        when(complaintJdbcRepository.findExistingKeys(any())).thenReturn(Set.of());
+        when(geoLocationService.getCountryFromIp("10.0.0.1")).thenReturn(Complaint.UNKNOWN_COUNTRY);
+        when(geoLocationService.getCountryFromIp("10.0.0.2")).thenReturn("PL");
+
+        complaintBatchService.addComplaints(List.of(
+                item(1L, "John Doe", "10.0.0.1"),
+                item(2L, "Jane Doe", "10.0.0.2")
+        ).iterator());
+
+        verify(complaintJdbcRepository).saveBatch(any(), any(), pendingCountryIpsCaptor.capture());
+        assertThat(pendingCountryIpsCaptor.getValue())
+                .containsExactly(Map.entry(new ComplaintKey(1L, "John Doe"), "10.0.0.1"));
+    }
+
+    @Test
+    void addComplaints_AsyncEnrichment_ShouldSkipRemoteGeolocation() {
+        geoLocationConfig.getEnrichment().setAsync(true);
+        when(complaintJdbcRepository.findExistingKeys(any())).thenReturn(Set.of());
+
+        complaintBatchService.addComplaints(List.of(item(1L, "John Doe", "10.0.0.1")).iterator());
+
+        verify(complaintJdbcRepository).saveBatch(newComplaintsCaptor.capture(), any(), pendingCountryIpsCaptor.capture());
+        assertThat(newComplaintsCaptor.getValue())
+                .extracting(Complaint::getCountry)
+                .containsExactly(Complaint.UNKNOWN_COUNTRY);
+        assertThat(pendingCountryIpsCaptor.getValue())
+                .containsExactly(Map.entry(new ComplaintKey(1L, "John Doe"), "10.0.0.1"));
+        verify(geoLocationService, never()).getCountryFromIp(any());
+    }
+
+    @Test
+    void addComplaints_EmptyInput_ShouldNotTouchRepository() {
+        ComplaintBatchResponseDto result = complaintBatchService.addComplaints(List.<ComplaintBatchItemDto>of().iterator());
+
+        assertThat(result.getReceived()).isZero();
+        verifyNoInteractions(complaintJdbcRepository, geoLocationService);
+    }
+
+    @Test
+    void addComplaints_InvalidItemInList_ShouldRejectBatchBeforeStoringAnything() {
+        List<ComplaintBatchItemDto> items = List.of(
+                item(1L, "John Doe", "10.0.0.1"),
+                item(null, "Jane Doe", "10.0.0.2"));
+
+        assertThatThrownBy(() -> complaintBatchService.addComplaints(items))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Batch item 2: productId is required; 0 earlier items were stored");
+        verifyNoInteractions(complaintJdbcRepository, geoLocationService);
+    }
+
+    @Test
+    void addComplaints_InvalidItemInStream_ShouldReportStoredItems() {
+        List<ComplaintBatchItemDto> items = new ArrayList<>();
+        for (long productId = 1; productId <= 1000; productId++) {
+            items.add(item(productId, "John Doe", "10.0.0.1"));
+        }
+        items.add(item(1001L, null, "10.0.0.1"));
+
+        assertThatThrownBy(() -> complaintBatchService.addComplaints(items.iterator()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Batch item 1001: complainant is required; 1000 earlier items were stored");
+        verify(complaintJdbcRepository, times(1)).saveBatch(any(), any(), any());
+    }
+
+    private ComplaintBatchItemDto item(Long productId, String complainant, String ip) {
+        ComplaintBatchItemDto item = new ComplaintBatchItemDto();
+        item.setProductId(productId);
+        item.setContent("Batch content");
+        item.setComplainant(complainant);
+        item.setIp(ip);
+        return item;
+    }
+
+}
@@ -2,6 +2,7 @@ package pl.empik.complaintmanager.service;
 
 import org.junit.jupiter.api.Test;
 import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintView;
 import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
 
 import java.time.LocalDateTime;
@@ -35,4 +36,19 @@ class ComplaintConverterTest {
         assertThat(result.getClaimCounter()).isEqualTo(2);
     }
 
+    @Test
+    void toResponseDto_ViewWithSelectedFields_ShouldOnlyCopySelectedFields() {
+        LocalDateTime now = LocalDateTime.now();
+        ComplaintView complaint = new ComplaintView(1L, 123L, "Test content", now, "John Doe", "US", 2, 3L);
+
+        ComplaintResponseDto result = complaintConverter.toResponseDto(complaint, ComplaintFields.parse("id,creationDate,version"));
+
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getCreationDate()).isEqualTo(now);
+        assertThat(result.getVersion()).isEqualTo(3L);
+        assertThat(result.getProductId()).isNull();
+        assertThat(result.getContent()).isNull();
+        assertThat(result.getClaimCounter()).isNull();
+    }
+
 }
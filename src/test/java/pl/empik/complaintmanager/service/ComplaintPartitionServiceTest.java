@@ -0,0 +1,122 @@
+package pl.empik.complaintmanager.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintmanager.config.ComplaintPartitionConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.ComplaintPartitionRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintPartitionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 10);
+
+    @Mock
+    private ComplaintPartitionRepository complaintPartitionRepository;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private ComplaintPartitionConfig config;
+    private ComplaintPartitionService complaintPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        config = new ComplaintPartitionConfig();
+        complaintPartitionService = new ComplaintPartitionService(complaintPartitionRepository, config,
+                new ComplaintShards(new ShardingConfig(), null));
+    }
+
+    @Test
+    void createFuturePartitions_ShouldCreateCurrentAndFutureMonths() {
+        config.setFutureMonths(2);
+
+        complaintPartitionService.createFuturePartitions(TODAY);
+
+        verify(complaintPartitionRepository).createPartition(LocalDate.of(2024, 5, 1));
+        verify(complaintPartitionRepository).createPartition(LocalDate.of(2024, 6, 1));
+        verify(complaintPartitionRepository).createPartition(LocalDate.of(2024, 7, 1));
+    }
+
+    @Test
+    void archiveExpiredPartitions_RetentionDisabled_ShouldNotTouchPartitions() {
+        config.setArchiveDirectory(archiveDirectory.toString());
+
+        assertThat(complaintPartitionService.archiveExpiredPartitions(TODAY)).isEmpty();
+
+        verifyNoInteractions(complaintPartitionRepository);
+    }
+
+    @Test
+    void archiveExpiredPartitions_NoArchiveDirectory_ShouldNotDetachPartitions() {
+        config.setRetentionMonths(2);
+
+        assertThat(complaintPartitionService.archiveExpiredPartitions(TODAY)).isEmpty();
+
+        verifyNoInteractions(complaintPartitionRepository);
+    }
+
+    @Test
+    void archiveExpiredPartitions_ShouldDetachArchiveAndDropPartitionsOlderThanRetention() throws IOException {
+        config.setRetentionMonths(2);
+        config.setArchiveDirectory(archiveDirectory.toString());
+        when(complaintPartitionRepository.findAttachedPartitions())
+                .thenReturn(List.of("complaints_p202402", "complaints_p202403", "complaints_p202404", "complaints_p202405"));
+        when(complaintPartitionRepository.findDetachedPartitions()).thenReturn(List.of("complaints_p202402"));
+        when(complaintPartitionRepository.archive(eq("complaints_p202402"), any(OutputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("id,product_id\n1,1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        List<Path> archives = complaintPartitionService.archiveExpiredPartitions(TODAY);
+
+        assertThat(archives).containsExactly(archiveDirectory.resolve("complaints_p202402.csv.gz"));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archives.getFirst()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,product_id\n1,1\n");
+        }
+        assertThat(archiveDirectory.resolve("complaints_p202402.csv.gz.tmp")).doesNotExist();
+        verify(complaintPartitionRepository).detachPartition("complaints_p202402");
+        verify(complaintPartitionRepository, never()).detachPartition("complaints_p202403");
+        verify(complaintPartitionRepository).drop("complaints_p202402");
+    }
+
+    @Test
+    void archiveExpiredPartitions_ArchiveFails_ShouldKeepDetachedTable() {
+        config.setRetentionMonths(2);
+        config.setArchiveDirectory(archiveDirectory.toString());
+        when(complaintPartitionRepository.findAttachedPartitions()).thenReturn(List.of());
+        when(complaintPartitionRepository.findDetachedPartitions()).thenReturn(List.of("complaints_p202401"));
+        when(complaintPartitionRepository.archive(eq("complaints_p202401"), any(OutputStream.class)))
+                .thenThrow(new IllegalStateException("Connection lost"));
+
+        assertThatThrownBy(() -> complaintPartitionService.archiveExpiredPartitions(TODAY))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(archiveDirectory.resolve("complaints_p202401.csv.gz")).doesNotExist();
+        verify(complaintPartitionRepository, never()).drop("complaints_p202401");
+    }
+
+}
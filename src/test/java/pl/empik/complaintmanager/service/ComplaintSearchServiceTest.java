@@ -0,0 +1,101 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintmanager.config.ComplaintClaimsConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.ComplaintFilter;
+import pl.empik.complaintmanager.domain.ComplaintSearchRepository.ComplaintMatch;
+import pl.empik.complaintmanager.domain.ComplaintSearchRepository;
+import pl.empik.complaintmanager.domain.ComplaintView;
+import pl.empik.complaintmanager.web.model.ComplaintSearchResultDto;
+import pl.empik.complaintmanager.web.model.CursorPageDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintSearchServiceTest {
+
+    private static final LocalDateTime CREATION_DATE = LocalDateTime.of(2024, 9, 7, 10, 30);
+
+    @Mock
+    private ComplaintSearchRepository complaintSearchRepository;
+
+    @Spy
+    private ClaimAccumulator claimAccumulator =
+            new ClaimAccumulator(null, new ComplaintClaimsConfig(), null,
+                    new ComplaintShards(new ShardingConfig(), null), new SimpleMeterRegistry());
+
+    @Spy
+    private ComplaintShards complaintShards = new ComplaintShards(new ShardingConfig(), null);
+
+    @InjectMocks
+    private ComplaintSearchService complaintSearchService;
+
+    @Test
+    void search_FirstPageWithMoreResults_ShouldReturnHighlightsAndNextCursor() {
+        ComplaintMatch first = match(1L, 0.3f, "<mark>damaged</mark> cover");
+        ComplaintMatch second = match(2L, 0.1f, "cover <mark>damaged</mark>");
+        when(complaintSearchRepository.search("damaged cover", new ComplaintFilter(1L, null, null, null), null, null, 2, true))
+                .thenReturn(List.of(first, second));
+
+        CursorPageDto<ComplaintSearchResultDto> result =
+                complaintSearchService.search("damaged cover", 1L, null, null, null, null, null, 1);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().getFirst().getComplaint().getId()).isEqualTo(1L);
+        assertThat(result.getContent().getFirst().getHighlight()).isEqualTo("<mark>damaged</mark> cover");
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(ComplaintSearchCursor.decode(result.getNextCursor())).isEqualTo(new ComplaintSearchCursor(0.3f, 1L));
+    }
+
+    @Test
+    void search_WithCursor_ShouldContinueAfterCursorPosition() {
+        String cursor = new ComplaintSearchCursor(0.3f, 1L).encode();
+        when(complaintSearchRepository.search("damaged", new ComplaintFilter(null, null, null, null), 0.3f, 1L, 11, false))
+                .thenReturn(List.of(match(2L, 0.1f, "<mark>damaged</mark>")));
+
+        CursorPageDto<ComplaintSearchResultDto> result =
+                complaintSearchService.search("damaged", null, null, null, null, "id", cursor, 10);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().getFirst().getComplaint().getContent()).isNull();
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void search_BlankQuery_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> complaintSearchService.search(" ", null, null, null, null, null, null, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Search query must not be blank");
+
+        verifyNoInteractions(complaintSearchRepository);
+    }
+
+    @Test
+    void search_MalformedCursor_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> complaintSearchService.search("damaged", null, null, null, null, null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+
+        verifyNoInteractions(complaintSearchRepository);
+    }
+
+    private static ComplaintMatch match(Long id, float rank, String highlight) {
+        return new ComplaintMatch(
+                new ComplaintView(id, 1L, "Content", CREATION_DATE, "John Doe", "PL", 1, 0L), rank, highlight);
+    }
+
+}
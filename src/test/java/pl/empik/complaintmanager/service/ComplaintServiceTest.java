@@ -1,19 +1,34 @@
 package pl.empik.complaintmanager.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.empik.complaintmanager.config.ComplaintClaimsConfig;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
 import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintFilter;
 import pl.empik.complaintmanager.domain.ComplaintRepository;
+import pl.empik.complaintmanager.domain.ComplaintView;
 import pl.empik.complaintmanager.web.model.ComplaintRequestDto;
 import pl.empik.complaintmanager.web.model.ComplaintResponseDto;
+import pl.empik.complaintmanager.web.model.CursorPageDto;
 import pl.empik.complaintmanager.web.model.UpdateComplaintRequestDto;
 
 import java.time.LocalDateTime;
@@ -34,11 +49,29 @@ class ComplaintServiceTest {
     @Mock
     private GeoLocationService geoLocationService;
 
+    @Spy
+    private GeoLocationConfig geoLocationConfig = new GeoLocationConfig();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ClaimAccumulator claimAccumulator =
+            new ClaimAccumulator(null, new ComplaintClaimsConfig(), null,
+                    new ComplaintShards(new ShardingConfig(), null), new SimpleMeterRegistry());
+
+    @Spy
+    private ComplaintShards complaintShards = new ComplaintShards(new ShardingConfig(), null);
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ComplaintService complaintService;
 
     private ComplaintRequestDto complaintRequestDto;
     private Complaint existingComplaint;
+    private ComplaintView existingView;
 
     @BeforeEach
     void setUp() {
@@ -55,17 +88,26 @@ class ComplaintServiceTest {
         existingComplaint.setCountry("US");
         existingComplaint.setCreationDate(LocalDateTime.now());
         existingComplaint.setClaimCounter(1);
+
+        existingView = new ComplaintView(1L, 1L, "Existing content", existingComplaint.getCreationDate(), "John Doe", "US", 1, 0L);
     }
 
     @Test
     void addComplaint_NewComplaint_ShouldCreateNewComplaint() {
         when(geoLocationService.getCountryFromIp(anyString())).thenReturn("US");
-        when(complaintRepository.findByProductIdAndComplainant(anyLong(), anyString())).thenReturn(Optional.empty());
-        when(complaintRepository.save(any(Complaint.class))).thenAnswer(invocation -> {
-            Complaint savedComplaint = invocation.getArgument(0);
-            savedComplaint.setId(1L);
-            return savedComplaint;
-        });
+        when(complaintRepository.incrementClaimCounter(anyLong(), anyString())).thenReturn(Optional.empty());
+        when(complaintRepository.insertOrIncrementClaimCounter(anyLong(), anyString(), any(LocalDateTime.class), anyString(), anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    Complaint savedComplaint = new Complaint();
+                    savedComplaint.setId(1L);
+                    savedComplaint.setProductId(invocation.getArgument(0));
+                    savedComplaint.setContent(invocation.getArgument(1));
+                    savedComplaint.setCreationDate(invocation.getArgument(2));
+                    savedComplaint.setComplainant(invocation.getArgument(3));
+                    savedComplaint.setCountry(invocation.getArgument(4));
+                    savedComplaint.setClaimCounter(1);
+                    return savedComplaint;
+                });
 
         ComplaintResponseDto result = complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
 
@@ -77,14 +119,59 @@ class ComplaintServiceTest {
         assertThat(result.getCountry()).isEqualTo("US");
         assertThat(result.getClaimCounter()).isEqualTo(1);
 
-        verify(complaintRepository).save(any(Complaint.class));
+        verify(complaintRepository).insertOrIncrementClaimCounter(eq(1L), eq("Test content"), any(LocalDateTime.class), eq("John Doe"), eq("US"),
+                eq("127.0.0.1"), eq(Complaint.UNKNOWN_COUNTRY));
+        assertThat(meterRegistry.get(ComplaintService.CLAIMS_COUNTER).tag("type", "new").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void addComplaint_GeolocationUnavailable_ShouldStoreUnknownCountryWithPendingEnrichment() {
+        existingComplaint.setCountry(Complaint.UNKNOWN_COUNTRY);
+        when(geoLocationService.getCountryFromIp("127.0.0.1")).thenReturn(Complaint.UNKNOWN_COUNTRY);
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe")).thenReturn(Optional.empty());
+        when(complaintRepository.insertOrIncrementClaimCounter(eq(1L), eq("Test content"), any(LocalDateTime.class), eq("John Doe"),
+                eq(Complaint.UNKNOWN_COUNTRY), eq("127.0.0.1"), eq(Complaint.UNKNOWN_COUNTRY)))
+                .thenReturn(existingComplaint);
+
+        ComplaintResponseDto result = complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
+
+        assertThat(result.getCountry()).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+    }
+
+    @Test
+    void addComplaint_CountryNotResolved_ShouldStoreUnknownCountryWithPendingEnrichment() {
+        existingComplaint.setCountry(Complaint.UNKNOWN_COUNTRY);
+        when(geoLocationService.getCountryFromIp("127.0.0.1"))
+                .thenThrow(new CountryNotResolvedException("Country not resolved for IP 127.0.0.1"));
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe")).thenReturn(Optional.empty());
+        when(complaintRepository.insertOrIncrementClaimCounter(eq(1L), eq("Test content"), any(LocalDateTime.class), eq("John Doe"),
+                eq(Complaint.UNKNOWN_COUNTRY), eq("127.0.0.1"), eq(Complaint.UNKNOWN_COUNTRY)))
+                .thenReturn(existingComplaint);
+
+        ComplaintResponseDto result = complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
+
+        assertThat(result.getCountry()).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+    }
+
+    @Test
+    void addComplaint_AsyncEnrichment_ShouldNotCallRemoteGeolocation() {
+        geoLocationConfig.getEnrichment().setAsync(true);
+        existingComplaint.setCountry(Complaint.UNKNOWN_COUNTRY);
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe")).thenReturn(Optional.empty());
+        when(complaintRepository.insertOrIncrementClaimCounter(eq(1L), eq("Test content"), any(LocalDateTime.class), eq("John Doe"),
+                eq(Complaint.UNKNOWN_COUNTRY), eq("127.0.0.1"), eq(Complaint.UNKNOWN_COUNTRY)))
+                .thenReturn(existingComplaint);
+
+        ComplaintResponseDto result = complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
+
+        assertThat(result.getCountry()).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+        verify(geoLocationService, never()).getCountryFromIp(any());
     }
 
     @Test
     void addComplaint_ExistingComplaint_ShouldIncrementClaimCounter() {
-        when(geoLocationService.getCountryFromIp(anyString())).thenReturn("US");
-        when(complaintRepository.findByProductIdAndComplainant(anyLong(), anyString())).thenReturn(Optional.of(existingComplaint));
-        when(complaintRepository.save(any(Complaint.class))).thenReturn(existingComplaint);
+        existingComplaint.setClaimCounter(2);
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe")).thenReturn(Optional.of(existingComplaint));
 
         ComplaintResponseDto result = complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
 
@@ -92,126 +179,330 @@ class ComplaintServiceTest {
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getClaimCounter()).isEqualTo(2);
 
-        verify(complaintRepository).save(existingComplaint);
+        verify(complaintRepository, never()).insertOrIncrementClaimCounter(any(), any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(geoLocationService);
+        assertThat(meterRegistry.get(ComplaintService.CLAIMS_COUNTER).tag("type", "repeat").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(ComplaintService.CLAIMS_COUNTER).tag("type", "new").counter()).isNull();
+    }
+
+    @Test
+    void addComplaint_BufferedRepeatClaim_ShouldReadCurrentComplaintAndEvictCache() {
+        ComplaintClaimsConfig claimsConfig = new ComplaintClaimsConfig();
+        claimsConfig.setWriteBehind(true);
+        ComplaintService service = new ComplaintService(complaintRepository, geoLocationService, geoLocationConfig,
+                meterRegistry, new ClaimAccumulator(null, claimsConfig, null, complaintShards, new SimpleMeterRegistry()),
+                complaintShards, cacheManager);
+        Cache cache = mock(Cache.class);
+        when(cacheManager.getCache(ComplaintService.COMPLAINTS_CACHE)).thenReturn(cache);
+        existingComplaint.setClaimCounter(2);
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe")).thenReturn(Optional.of(existingComplaint));
+        when(complaintRepository.findViewById(1L)).thenReturn(Optional.of(new ComplaintView(1L, 1L, "Updated content",
+                existingComplaint.getCreationDate(), "John Doe", "PL", 2, 1L)));
+
+        service.addComplaint(complaintRequestDto, "127.0.0.1");
+        ComplaintResponseDto result = service.addComplaint(complaintRequestDto, "127.0.0.1");
+
+        assertThat(result.getContent()).isEqualTo("Updated content");
+        assertThat(result.getCountry()).isEqualTo("PL");
+        assertThat(result.getClaimCounter()).isEqualTo(3);
+        verify(complaintRepository).incrementClaimCounter(1L, "John Doe");
+        verify(cache).put(eq(1L), any(ComplaintResponseDto.class));
+        verify(cache).evict(1L);
+    }
+
+    @Test
+    void addComplaint_AsyncEnrichmentWithLocalMatch_ShouldStoreLocalCountry() {
+        geoLocationConfig.getEnrichment().setAsync(true);
+        when(geoLocationService.findLocalCountry("127.0.0.1")).thenReturn(Optional.of("PL"));
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe")).thenReturn(Optional.empty());
+        when(complaintRepository.insertOrIncrementClaimCounter(eq(1L), eq("Test content"), any(LocalDateTime.class), eq("John Doe"),
+                eq("PL"), eq("127.0.0.1"), eq(Complaint.UNKNOWN_COUNTRY)))
+                .thenReturn(existingComplaint);
+
+        complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
+
+        verify(geoLocationService, never()).getCountryFromIp(any());
+    }
+
+    @Test
+    void addComplaint_TransientConflict_ShouldRetryClaimIncrement() {
+        existingComplaint.setClaimCounter(2);
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe"))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"))
+                .thenReturn(Optional.of(existingComplaint));
+
+        ComplaintResponseDto result = complaintService.addComplaint(complaintRequestDto, "127.0.0.1");
+
+        assertThat(result.getClaimCounter()).isEqualTo(2);
+        verify(complaintRepository, times(2)).incrementClaimCounter(1L, "John Doe");
+    }
+
+    @Test
+    void addComplaint_PersistentConflict_ShouldGiveUpAfterMaxAttempts() {
+        when(complaintRepository.incrementClaimCounter(1L, "John Doe"))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        assertThatThrownBy(() -> complaintService.addComplaint(complaintRequestDto, "127.0.0.1"))
+                .isInstanceOf(CannotAcquireLockException.class);
+
+        verify(complaintRepository, times(ComplaintService.MAX_CLAIM_ATTEMPTS)).incrementClaimCounter(1L, "John Doe");
     }
 
     @Test
     void updateComplaintContent_ExistingComplaint_ShouldUpdateContent() {
         UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
         updateDto.setContent("Updated content");
+        updateDto.setVersion(0L);
+        existingComplaint.setContent("Updated content");
+        existingComplaint.setVersion(1L);
 
-        when(complaintRepository.findById(1L)).thenReturn(Optional.of(existingComplaint));
-        when(complaintRepository.save(any(Complaint.class))).thenReturn(existingComplaint);
+        when(complaintRepository.updateContentIfVersion(1L, "Updated content", 0L)).thenReturn(Optional.of(existingComplaint));
 
         ComplaintResponseDto result = complaintService.updateComplaintContent(1L, updateDto);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getContent()).isEqualTo("Updated content");
+        assertThat(result.getVersion()).isEqualTo(1L);
 
-        verify(complaintRepository).save(existingComplaint);
+        verify(complaintRepository, never()).save(any(Complaint.class));
+    }
+
+    @Test
+    void updateComplaintContent_MissingVersion_ShouldRejectUpdate() {
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Updated content");
+
+        assertThatThrownBy(() -> complaintService.updateComplaintContent(1L, updateDto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Version must be provided");
+
+        verifyNoInteractions(complaintRepository);
+    }
+
+    @Test
+    void updateComplaintContent_MatchingVersion_ShouldUpdateConditionally() {
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Updated content");
+        updateDto.setVersion(3L);
+        existingComplaint.setVersion(4L);
+
+        when(complaintRepository.updateContentIfVersion(1L, "Updated content", 3L)).thenReturn(Optional.of(existingComplaint));
+
+        ComplaintResponseDto result = complaintService.updateComplaintContent(1L, updateDto);
+
+        assertThat(result.getVersion()).isEqualTo(4L);
+    }
+
+    @Test
+    void updateComplaintContent_StaleVersion_ShouldThrowOptimisticLockingFailure() {
+        UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
+        updateDto.setContent("Updated content");
+        updateDto.setVersion(3L);
+
+        when(complaintRepository.updateContentIfVersion(1L, "Updated content", 3L)).thenReturn(Optional.empty());
+        when(complaintRepository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> complaintService.updateComplaintContent(1L, updateDto))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(complaintRepository, times(1)).updateContentIfVersion(1L, "Updated content", 3L);
     }
 
     @Test
     void updateComplaintContent_NonExistingComplaint_ShouldThrowException() {
         UpdateComplaintRequestDto updateDto = new UpdateComplaintRequestDto();
         updateDto.setContent("Updated content");
+        updateDto.setVersion(0L);
 
-        when(complaintRepository.findById(1L)).thenReturn(Optional.empty());
+        when(complaintRepository.updateContentIfVersion(1L, "Updated content", 0L)).thenReturn(Optional.empty());
+        when(complaintRepository.existsById(1L)).thenReturn(false);
 
         assertThatThrownBy(() -> complaintService.updateComplaintContent(1L, updateDto))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Complaint not found");
-
-        verify(complaintRepository, never()).save(any(Complaint.class));
     }
 
     @Test
     void getAllComplaints_NoFilters_ShouldReturnAllComplaints() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Complaint> complaintsPage = new PageImpl<>(List.of(existingComplaint));
 
-        when(complaintRepository.findAll(pageable)).thenReturn(complaintsPage);
+        when(complaintRepository.findPage(new ComplaintFilter(null, null, null, null), true, pageable)).thenReturn(new PageImpl<>(List.of(existingView)));
 
-        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(null, null, pageable);
+        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(null, null, null, null, null, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().getFirst().getId()).isEqualTo(1L);
-
-        verify(complaintRepository).findAll(pageable);
+        assertThat(result.getContent().getFirst().getContent()).isEqualTo("Existing content");
     }
 
     @Test
-    void getAllComplaints_WithProductIdFilter_ShouldReturnFilteredComplaints() {
+    void getAllComplaints_WithFilters_ShouldPassFiltersToRepository() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Complaint> complaintsPage = new PageImpl<>(List.of(existingComplaint));
 
-        when(complaintRepository.findByProductId(1L, pageable)).thenReturn(complaintsPage);
+        when(complaintRepository.findPage(new ComplaintFilter(1L, "John", null, null), true, pageable)).thenReturn(new PageImpl<>(List.of(existingView)));
 
-        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(1L, null, pageable);
+        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(1L, "John", null, null, null, pageable);
 
-        assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().getFirst().getProductId()).isEqualTo(1L);
-
-        verify(complaintRepository).findByProductId(1L, pageable);
+        assertThat(result.getContent().getFirst().getComplainant()).isEqualTo("John Doe");
     }
 
     @Test
-    void getAllComplaints_WithComplainantFilter_ShouldReturnFilteredComplaints() {
+    void getAllComplaints_FieldsWithoutContent_ShouldNotLoadContent() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Complaint> complaintsPage = new PageImpl<>(List.of(existingComplaint));
+        ComplaintView withoutContent = new ComplaintView(1L, 1L, existingComplaint.getCreationDate(), "John Doe", "US", 1, 0L);
 
-        when(complaintRepository.findByComplainantContainingIgnoreCase("John", pageable)).thenReturn(complaintsPage);
+        when(complaintRepository.findPage(new ComplaintFilter(1L, null, null, null), false, pageable)).thenReturn(new PageImpl<>(List.of(withoutContent)));
 
-        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(null, "John", pageable);
+        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(1L, null, null, null, "id, claimCounter", pageable);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().getFirst().getComplainant()).isEqualTo("John Doe");
+        ComplaintResponseDto complaint = result.getContent().getFirst();
+        assertThat(complaint.getId()).isEqualTo(1L);
+        assertThat(complaint.getClaimCounter()).isEqualTo(1);
+        assertThat(complaint.getContent()).isNull();
+        assertThat(complaint.getComplainant()).isNull();
+    }
+
+    @Test
+    void getAllComplaints_UnknownField_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> complaintService.getAllComplaints(null, null, null, null, "id,password", PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: password");
 
-        verify(complaintRepository).findByComplainantContainingIgnoreCase("John", pageable);
+        verifyNoInteractions(complaintRepository);
     }
 
     @Test
-    void getAllComplaints_WithBothFilters_ShouldReturnFilteredComplaints() {
+    void getAllComplaints_WithDateRange_ShouldPassRangeToRepository() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Complaint> complaintsPage = new PageImpl<>(List.of(existingComplaint));
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
 
-        when(complaintRepository.findByProductIdAndComplainantContainingIgnoreCase(1L, "John", pageable)).thenReturn(complaintsPage);
+        when(complaintRepository.findPage(new ComplaintFilter(1L, null, from, to), true, pageable))
+                .thenReturn(new PageImpl<>(List.of(existingView)));
 
-        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(1L, "John", pageable);
+        Page<ComplaintResponseDto> result = complaintService.getAllComplaints(1L, null, from, to, null, pageable);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().getFirst().getProductId()).isEqualTo(1L);
-        assertThat(result.getContent().getFirst().getComplainant()).isEqualTo("John Doe");
+        assertThat(result.getContent()).extracting(ComplaintResponseDto::getId).containsExactly(1L);
+    }
+
+    @Test
+    void getAllComplaints_EmptyDateRange_ShouldThrowIllegalArgumentException() {
+        LocalDateTime from = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        assertThatThrownBy(() -> complaintService.getAllComplaints(null, null, from, from.minusDays(1), null,
+                PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Date range start must be before its end");
+
+        verifyNoInteractions(complaintRepository);
+    }
+
+    @Test
+    void getComplaintsAfter_FirstPageWithMoreResults_ShouldReturnNextCursor() {
+        ComplaintView secondComplaint = new ComplaintView(2L, 1L, "Other content",
+                existingComplaint.getCreationDate().plusSeconds(1), "Jane Doe", "US", 1, 0L);
+
+        when(complaintRepository.findAfter(new ComplaintFilter(1L, null, null, null), null, null, 2, true)).thenReturn(List.of(existingView, secondComplaint));
+
+        CursorPageDto<ComplaintResponseDto> result = complaintService.getComplaintsAfter(1L, null, null, null, null, "", 1);
+
+        assertThat(result.getContent()).extracting(ComplaintResponseDto::getId).containsExactly(1L);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(ComplaintCursor.decode(result.getNextCursor()))
+                .isEqualTo(new ComplaintCursor(existingComplaint.getCreationDate(), 1L));
+    }
+
+    @Test
+    void getComplaintsAfter_WithCursor_ShouldContinueAfterCursorPosition() {
+        String cursor = new ComplaintCursor(existingComplaint.getCreationDate(), 1L).encode();
+
+        when(complaintRepository.findAfter(new ComplaintFilter(null, null, null, null), existingComplaint.getCreationDate(), 1L, 11, false)).thenReturn(List.of());
 
-        verify(complaintRepository).findByProductIdAndComplainantContainingIgnoreCase(1L, "John", pageable);
+        CursorPageDto<ComplaintResponseDto> result = complaintService.getComplaintsAfter(null, null, null, null, "id", cursor, 10);
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getComplaintsAfter_Sharded_ShouldMergeShardsInKeysetOrder() {
+        LocalDateTime now = existingComplaint.getCreationDate();
+        ComplaintFilter filter = new ComplaintFilter(null, "Doe", null, null);
+        when(complaintRepository.findAfter(filter, null, null, 3, true)).thenReturn(
+                List.of(view(10L, now), view(30L, now.plusSeconds(2))),
+                List.of(view(20L, now.plusSeconds(1)), view(40L, now.plusSeconds(3))));
+
+        CursorPageDto<ComplaintResponseDto> result = shardedService()
+                .getComplaintsAfter(null, "Doe", null, null, null, "", 2);
+
+        assertThat(result.getContent()).extracting(ComplaintResponseDto::getId).containsExactly(10L, 20L);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(ComplaintCursor.decode(result.getNextCursor())).isEqualTo(new ComplaintCursor(now.plusSeconds(1), 20L));
+    }
+
+    @Test
+    void getAllComplaints_Sharded_ShouldMergeSortedPagesAcrossShards() {
+        LocalDateTime now = existingComplaint.getCreationDate();
+        Sort sort = Sort.by("creationDate", "id");
+        Pageable shardPage = PageRequest.of(0, 2, sort);
+        when(complaintRepository.findPage(new ComplaintFilter(null, "Doe", null, null), true, shardPage)).thenReturn(
+                new PageImpl<>(List.of(view(10L, now), view(30L, now.plusSeconds(2))), shardPage, 2),
+                new PageImpl<>(List.of(view(20L, now.plusSeconds(1)), view(40L, now.plusSeconds(3))), shardPage, 2));
+
+        Page<ComplaintResponseDto> result = shardedService()
+                .getAllComplaints(null, "Doe", null, null, null, PageRequest.of(1, 1, Sort.by("creationDate")));
+
+        assertThat(result.getContent()).extracting(ComplaintResponseDto::getId).containsExactly(20L);
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void getComplaintsAfter_MalformedCursor_ShouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> complaintService.getComplaintsAfter(null, null, null, null, null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+
+        verifyNoInteractions(complaintRepository);
     }
 
     @Test
     void getComplaintById_ExistingComplaint_ShouldReturnComplaint() {
-        when(complaintRepository.findById(1L)).thenReturn(Optional.of(existingComplaint));
+        when(complaintRepository.findViewById(1L)).thenReturn(Optional.of(existingView));
 
         ComplaintResponseDto result = complaintService.getComplaintById(1L);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(1L);
 
-        verify(complaintRepository).findById(1L);
+        verify(complaintRepository).findViewById(1L);
     }
 
     @Test
     void getComplaintById_NonExistingComplaint_ShouldThrowException() {
-        when(complaintRepository.findById(1L)).thenReturn(Optional.empty());
+        when(complaintRepository.findViewById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> complaintService.getComplaintById(1L))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Complaint not found");
 
-        verify(complaintRepository).findById(1L);
+        verify(complaintRepository).findViewById(1L);
+    }
+
+    private ComplaintService shardedService() {
+        ShardingConfig config = new ShardingConfig();
+        config.setEnabled(true);
+        config.setShards(List.of(new ShardingConfig.Shard()));
+        return new ComplaintService(complaintRepository, geoLocationService, geoLocationConfig, meterRegistry,
+                claimAccumulator, new ComplaintShards(config, mock(PlatformTransactionManager.class)), cacheManager);
+    }
+
+    private static ComplaintView view(Long id, LocalDateTime creationDate) {
+        return new ComplaintView(id, id, "Content " + id, creationDate, "John Doe", "PL", 1, 0L);
     }
 
 }
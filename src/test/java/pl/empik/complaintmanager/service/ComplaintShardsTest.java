@@ -0,0 +1,84 @@
+package pl.empik.complaintmanager.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.empik.complaintmanager.config.ShardingConfig;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ComplaintShardsTest {
+
+    private ShardingConfig config;
+    private ComplaintShards complaintShards;
+
+    @BeforeEach
+    void setUp() {
+        config = new ShardingConfig();
+        config.setEnabled(true);
+        config.setShards(List.of(new ShardingConfig.Shard(), new ShardingConfig.Shard()));
+        config.setProductRanges(List.of(range(1000, 1), range(2000, 2)));
+        complaintShards = new ComplaintShards(config, mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        complaintShards.shutdown();
+    }
+
+    @Test
+    void shardOf_ShouldFollowProductRanges() {
+        assertThat(List.of(complaintShards.shardOf(1L), complaintShards.shardOf(999L), complaintShards.shardOf(1000L),
+                complaintShards.shardOf(1999L), complaintShards.shardOf(2500L)))
+                .containsExactly(0, 0, 1, 1, 2);
+    }
+
+    @Test
+    void shardOfId_SnowflakeId_ShouldDecodeShard() {
+        long id = (123_456_789L << 22) | (2L << 12) | 7;
+
+        assertThat(complaintShards.shardOfId(id)).isEqualTo(2);
+    }
+
+    @Test
+    void shardOfId_LegacySequenceId_ShouldUseFirstShard() {
+        assertThat(complaintShards.shardOfId(1_000_000L)).isZero();
+    }
+
+    @Test
+    void constructor_RangeOfUnknownShard_ShouldFail() {
+        config.setProductRanges(List.of(range(1000, 3)));
+
+        assertThatThrownBy(() -> new ComplaintShards(config, mock(PlatformTransactionManager.class)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Product range starting at 1000 is mapped to unknown shard 3");
+    }
+
+    @Test
+    void readAll_ShouldQueryEveryShardInOrder() {
+        assertThat(complaintShards.readAll(shard -> "shard-" + shard))
+                .containsExactly("shard-0", "shard-1", "shard-2");
+    }
+
+    @Test
+    void readAll_NotSharded_ShouldQuerySingleDatabase() {
+        ComplaintShards single = new ComplaintShards(new ShardingConfig(), null);
+
+        assertThat(single.readAll(shard -> "shard-" + shard)).containsExactly("shard-0");
+        assertThat(single.shardOf(2500L)).isZero();
+        assertThat(single.shardOfId((123_456_789L << 22) | (2L << 12))).isZero();
+    }
+
+    private static ShardingConfig.ProductRange range(long from, int shard) {
+        ShardingConfig.ProductRange range = new ShardingConfig.ProductRange();
+        range.setFrom(from);
+        range.setShard(shard);
+        return range;
+    }
+
+}
@@ -0,0 +1,100 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintmanager.config.ComplaintClaimsConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.ComplaintStatsRepository.CountryStats;
+import pl.empik.complaintmanager.domain.ComplaintStatsRepository;
+import pl.empik.complaintmanager.web.model.ComplaintStatsDto;
+import pl.empik.complaintmanager.web.model.CountryStatsDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintStatsServiceTest {
+
+    @Mock
+    private ComplaintStatsRepository complaintStatsRepository;
+
+    @Spy
+    private ClaimAccumulator claimAccumulator =
+            new ClaimAccumulator(null, new ComplaintClaimsConfig(), null,
+                    new ComplaintShards(new ShardingConfig(), null), new SimpleMeterRegistry());
+
+    @Spy
+    private ComplaintShards complaintShards = new ComplaintShards(new ShardingConfig(), null);
+
+    @InjectMocks
+    private ComplaintStatsService complaintStatsService;
+
+    @Test
+    void getStats_ShouldSumCountriesIntoProductTotals() {
+        when(complaintStatsRepository.findByProductId(1L))
+                .thenReturn(List.of(new CountryStats("DE", 1, 4), new CountryStats("PL", 2, 3)));
+
+        ComplaintStatsDto result = complaintStatsService.getStats(1L);
+
+        assertThat(result.getProductId()).isEqualTo(1L);
+        assertThat(result.getComplaintCount()).isEqualTo(3);
+        assertThat(result.getClaimCount()).isEqualTo(7);
+        assertThat(result.getCountries()).containsExactly(new CountryStatsDto("DE", 1, 4), new CountryStatsDto("PL", 2, 3));
+    }
+
+    @Test
+    void getStats_PendingClaims_ShouldBeCreditedToCurrentCountry() {
+        ComplaintClaimsConfig claimsConfig = new ComplaintClaimsConfig();
+        claimsConfig.setWriteBehind(true);
+        ClaimAccumulator writeBehind = new ClaimAccumulator(null, claimsConfig, null, complaintShards,
+                new SimpleMeterRegistry());
+        Complaint complaint = new Complaint();
+        complaint.setId(7L);
+        complaint.setProductId(1L);
+        complaint.setComplainant("John Doe");
+        complaint.setCountry(Complaint.UNKNOWN_COUNTRY);
+        complaint.setClaimCounter(2);
+        writeBehind.register(complaint);
+        writeBehind.claim(1L, "John Doe");
+        when(complaintStatsRepository.findByProductId(1L)).thenReturn(List.of(new CountryStats("PL", 1, 2)));
+        when(complaintStatsRepository.findCountries(Set.of(7L))).thenReturn(Map.of(7L, "PL"));
+
+        ComplaintStatsDto result = new ComplaintStatsService(complaintStatsRepository, writeBehind, complaintShards)
+                .getStats(1L);
+
+        assertThat(result.getClaimCount()).isEqualTo(3);
+        assertThat(result.getCountries()).containsExactly(new CountryStatsDto("PL", 1, 3));
+    }
+
+    @Test
+    void getStats_NoComplaints_ShouldReturnZeroTotals() {
+        when(complaintStatsRepository.findByProductId(1L)).thenReturn(List.of());
+
+        ComplaintStatsDto result = complaintStatsService.getStats(1L);
+
+        assertThat(result.getComplaintCount()).isZero();
+        assertThat(result.getClaimCount()).isZero();
+        assertThat(result.getCountries()).isEmpty();
+    }
+
+    @Test
+    void rebuildStats_ShouldRebuildFromComplaints() {
+        when(complaintStatsRepository.rebuild()).thenReturn(5);
+
+        assertThat(complaintStatsService.rebuildStats()).isEqualTo(5);
+
+        verify(complaintStatsRepository).rebuild();
+    }
+
+}
@@ -0,0 +1,127 @@
+package pl.empik.complaintmanager.service;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.config.ShardingConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+import pl.empik.complaintmanager.domain.CountryEnrichmentRepository.OutboxStatistics;
+import pl.empik.complaintmanager.domain.CountryEnrichmentRepository;
+import pl.empik.complaintmanager.domain.PendingCountry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CountryEnrichmentServiceTest {
+
+    @Mock
+    private CountryEnrichmentRepository countryEnrichmentRepository;
+
+    @Mock
+    private GeoLocationService geoLocationService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CountryEnrichmentService countryEnrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        countryEnrichmentService = new CountryEnrichmentService(countryEnrichmentRepository, geoLocationService,
+                RateLimiter.ofDefaults("geoLocation"), cacheManager, new ComplaintShards(new ShardingConfig(), null),
+                new GeoLocationConfig(), meterRegistry);
+        lenient().when(countryEnrichmentRepository.statistics()).thenReturn(new OutboxStatistics(0, Duration.ZERO));
+    }
+
+    @AfterEach
+    void tearDown() {
+        countryEnrichmentService.shutdown();
+    }
+
+    @Test
+    void enrichPending_CountryResolved_ShouldLookUpEachIpOnceAndEvictCache() {
+        when(countryEnrichmentRepository.claimDue(anyInt(), any())).thenReturn(List.of(
+                new PendingCountry(1L, 1L, "John Doe", "10.0.0.1", 1),
+                new PendingCountry(2L, 2L, "John Doe", "10.0.0.1", 1)));
+        when(geoLocationService.getCountryFromIp("10.0.0.1")).thenReturn("PL");
+        when(countryEnrichmentRepository.resolve(List.of(1L, 2L), "PL", Complaint.UNKNOWN_COUNTRY))
+                .thenReturn(List.of(11L, 12L));
+        when(cacheManager.getCache(ComplaintService.COMPLAINTS_CACHE)).thenReturn(cache);
+
+        countryEnrichmentService.enrichPending();
+
+        verify(geoLocationService, times(1)).getCountryFromIp("10.0.0.1");
+        verify(cache).evict(11L);
+        verify(cache).evict(12L);
+    }
+
+    @Test
+    void enrichPending_GeolocationUnavailable_ShouldRetryWithExponentialBackoff() {
+        when(countryEnrichmentRepository.claimDue(anyInt(), any())).thenReturn(List.of(
+                new PendingCountry(1L, 1L, "John Doe", "10.0.0.1", 1),
+                new PendingCountry(2L, 2L, "John Doe", "10.0.0.1", 3)));
+        when(geoLocationService.getCountryFromIp("10.0.0.1")).thenReturn(Complaint.UNKNOWN_COUNTRY);
+
+        countryEnrichmentService.enrichPending();
+
+        verify(countryEnrichmentRepository).retryLater(1L, Duration.ofSeconds(30));
+        verify(countryEnrichmentRepository).retryLater(2L, Duration.ofMinutes(2));
+        verify(countryEnrichmentRepository, never()).resolve(any(), any(), any());
+    }
+
+    @Test
+    void enrichPending_AttemptsExhausted_ShouldGiveUp() {
+        when(countryEnrichmentRepository.claimDue(anyInt(), any())).thenReturn(List.of(
+                new PendingCountry(1L, 1L, "John Doe", "10.0.0.1", 10)));
+        when(geoLocationService.getCountryFromIp("10.0.0.1")).thenReturn(Complaint.UNKNOWN_COUNTRY);
+
+        countryEnrichmentService.enrichPending();
+
+        verify(countryEnrichmentRepository).delete(List.of(1L));
+        verify(countryEnrichmentRepository, never()).retryLater(any(), any());
+    }
+
+    @Test
+    void enrichPending_CountryNotResolvable_ShouldGiveUp() {
+        when(countryEnrichmentRepository.claimDue(anyInt(), any())).thenReturn(List.of(
+                new PendingCountry(1L, 1L, "John Doe", "10.0.0.1", 1)));
+        when(geoLocationService.getCountryFromIp("10.0.0.1")).thenThrow(new CountryNotResolvedException("Country not resolved"));
+
+        countryEnrichmentService.enrichPending();
+
+        verify(countryEnrichmentRepository).delete(List.of(1L));
+        verify(countryEnrichmentRepository, never()).resolve(any(), any(), any());
+    }
+
+    @Test
+    void enrichPending_ShouldPublishQueueDepthAndLag() {
+        when(countryEnrichmentRepository.claimDue(anyInt(), any())).thenReturn(List.of());
+        when(countryEnrichmentRepository.statistics()).thenReturn(new OutboxStatistics(3, Duration.ofSeconds(5)));
+
+        countryEnrichmentService.enrichPending();
+
+        assertThat(meterRegistry.get("country.enrichment.queue.depth").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("country.enrichment.lag").timeGauge().value(TimeUnit.SECONDS)).isEqualTo(5);
+    }
+
+}
@@ -0,0 +1,157 @@
+package pl.empik.complaintmanager.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+import pl.empik.complaintmanager.domain.Complaint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.twice;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GeoLocationServiceTest {
+
+    private MockRestServiceServer server;
+    private AsyncCache<String, Optional<String>> cache;
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private MeterRegistry meterRegistry;
+    private GeoLocationService geoLocationService;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://geo.test");
+        server = MockRestServiceServer.bindTo(builder).build();
+        cache = Caffeine.newBuilder().recordStats().buildAsync();
+        circuitBreaker = CircuitBreaker.ofDefaults("geoLocation");
+        bulkhead = Bulkhead.of("geoLocation", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        meterRegistry = new SimpleMeterRegistry();
+        GeoLocationConfig config = new GeoLocationConfig();
+        geoLocationService = new GeoLocationService(builder.build(), config, cache, circuitBreaker, bulkhead,
+                new IpRangeDatabase(config), meterRegistry);
+    }
+
+    @Test
+    void getCountryFromIp_SamePrefix_ShouldCallRemoteServiceOnce() {
+        server.expect(once(), requestTo("http://geo.test/10.0.0.1/country"))
+                .andRespond(withSuccess("PL", MediaType.TEXT_PLAIN));
+
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.1")).isEqualTo("PL");
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.2")).isEqualTo("PL");
+
+        server.verify();
+        assertThat(cache.synchronous().stats().hitCount()).isEqualTo(1);
+        assertThat(cache.synchronous().stats().missCount()).isEqualTo(1);
+        assertThat(lookupCount("resolved")).isEqualTo(1);
+        assertThat(lookupCount("cached")).isEqualTo(1);
+    }
+
+    @Test
+    void getCountryFromIp_LocalDatabaseMatch_ShouldNotCallRemoteService(@TempDir Path directory) throws IOException {
+        Path dataset = Files.writeString(directory.resolve("ranges.csv"), "10.0.0.0/8,PL\n");
+        GeoLocationConfig config = new GeoLocationConfig();
+        config.getDatabase().setPath(dataset.toString());
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://geo.test");
+        MockRestServiceServer localServer = MockRestServiceServer.bindTo(builder).build();
+        var service = new GeoLocationService(builder.build(), config, cache, circuitBreaker, bulkhead,
+                new IpRangeDatabase(config), meterRegistry);
+
+        assertThat(service.getCountryFromIp("10.1.2.3")).isEqualTo("PL");
+        assertThat(service.findLocalCountry("11.1.2.3")).isEmpty();
+
+        localServer.verify();
+        assertThat(cache.synchronous().estimatedSize()).isZero();
+        assertThat(lookupCount("local")).isEqualTo(1);
+    }
+
+    @Test
+    void getCountryFromIp_DifferentPrefix_ShouldCallRemoteServiceForEach() {
+        server.expect(once(), requestTo("http://geo.test/10.0.0.1/country"))
+                .andRespond(withSuccess("PL", MediaType.TEXT_PLAIN));
+        server.expect(once(), requestTo("http://geo.test/10.0.1.1/country"))
+                .andRespond(withSuccess("DE", MediaType.TEXT_PLAIN));
+
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.1")).isEqualTo("PL");
+        assertThat(geoLocationService.getCountryFromIp("10.0.1.1")).isEqualTo("DE");
+
+        server.verify();
+    }
+
+    @Test
+    void getCountryFromIp_RejectedLookup_ShouldBeCachedNegatively() {
+        server.expect(once(), requestTo("http://geo.test/10.0.0.1/country"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertThatThrownBy(() -> geoLocationService.getCountryFromIp("10.0.0.1"))
+                .isInstanceOf(CountryNotResolvedException.class);
+        assertThatThrownBy(() -> geoLocationService.getCountryFromIp("10.0.0.1"))
+                .isInstanceOf(CountryNotResolvedException.class);
+
+        server.verify();
+        assertThat(cache.synchronous().getIfPresent("4:a000000/24")).isEmpty();
+        assertThat(lookupCount("unresolved")).isEqualTo(2);
+    }
+
+    @Test
+    void getCountryFromIp_ServerError_ShouldFallBackToUnknownCountryWithoutCaching() {
+        server.expect(twice(), requestTo("http://geo.test/10.0.0.1/country"))
+                .andRespond(withServerError());
+
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+
+        server.verify();
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(2);
+        assertThat(lookupCount("unavailable")).isEqualTo(2);
+    }
+
+    @Test
+    void getCountryFromIp_CircuitBreakerOpen_ShouldNotCallRemoteService() {
+        circuitBreaker.transitionToOpenState();
+
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+
+        server.verify();
+    }
+
+    @Test
+    void getCountryFromIp_BulkheadFull_ShouldNotCallRemoteService() {
+        assertThat(bulkhead.tryAcquirePermission()).isTrue();
+
+        assertThat(geoLocationService.getCountryFromIp("10.0.0.1")).isEqualTo(Complaint.UNKNOWN_COUNTRY);
+
+        bulkhead.onComplete();
+        server.verify();
+    }
+
+    private long lookupCount(String outcome) {
+        return meterRegistry.get(GeoLocationService.LOOKUP_TIMER).tag("outcome", outcome).timer().count();
+    }
+
+}
@@ -0,0 +1,54 @@
+package pl.empik.complaintmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressesTest {
+
+    @Test
+    void parseIpv4_ShouldParseDottedQuad() {
+        assertThat(IpAddresses.parseIpv4("192.168.1.10")).isEqualTo(0xC0A8010AL);
+        assertThat(IpAddresses.parseIpv4("256.1.1.1")).isEqualTo(-1);
+        assertThat(IpAddresses.parseIpv4("1.2.3")).isEqualTo(-1);
+        assertThat(IpAddresses.parseIpv4("example.com")).isEqualTo(-1);
+    }
+
+    @Test
+    void parseIpv6_ShouldExpandCompressedNotation() {
+        long[] result = new long[2];
+
+        assertThat(IpAddresses.parseIpv6("2001:db8::1", result)).isTrue();
+        assertThat(result).containsExactly(0x20010DB800000000L, 1L);
+
+        assertThat(IpAddresses.parseIpv6("::ffff:10.0.0.1", result)).isTrue();
+        assertThat(result).containsExactly(0L, 0x0000FFFF0A000001L);
+
+        assertThat(IpAddresses.parseIpv6("1:2:3:4:5:6:7:8", result)).isTrue();
+        assertThat(result).containsExactly(0x0001000200030004L, 0x0005000600070008L);
+
+        assertThat(IpAddresses.parseIpv6("1:2:3:4:5:6:7::", result)).isTrue();
+        assertThat(result).containsExactly(0x0001000200030004L, 0x0005000600070000L);
+
+        assertThat(IpAddresses.parseIpv6("::", result)).isTrue();
+        assertThat(result).containsExactly(0L, 0L);
+
+        assertThat(IpAddresses.parseIpv6("1::2::3", result)).isFalse();
+        assertThat(IpAddresses.parseIpv6("1:2:3:4:5:6:7", result)).isFalse();
+        assertThat(IpAddresses.parseIpv6("1:2:3:4::5:6:7:8", result)).isFalse();
+        assertThat(IpAddresses.parseIpv6("1:2:3:4:5:6:7:8:9", result)).isFalse();
+        assertThat(IpAddresses.parseIpv6(":1:2:3:4:5:6:7", result)).isFalse();
+        assertThat(IpAddresses.parseIpv6("1:2:3:4:5:6:1.2.3.4:8", result)).isFalse();
+    }
+
+    @Test
+    void prefixKey_ShouldGroupNeighbouringAddresses() {
+        assertThat(IpAddresses.prefixKey("10.0.0.1", 24, 48))
+                .isEqualTo(IpAddresses.prefixKey("10.0.0.254", 24, 48))
+                .isNotEqualTo(IpAddresses.prefixKey("10.0.1.1", 24, 48));
+        assertThat(IpAddresses.prefixKey("2001:db8:1:2::1", 24, 48))
+                .isEqualTo(IpAddresses.prefixKey("[2001:db8:1:ffff::2]", 24, 48));
+        assertThat(IpAddresses.prefixKey("not-an-ip", 24, 48)).isEqualTo("not-an-ip");
+    }
+
+}
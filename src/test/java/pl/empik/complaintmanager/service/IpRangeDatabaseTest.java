@@ -0,0 +1,61 @@
+package pl.empik.complaintmanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.empik.complaintmanager.config.GeoLocationConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpRangeDatabaseTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reload_ChangedDataset_ShouldSwapRanges() throws IOException {
+        Path dataset = Files.writeString(directory.resolve("ranges.csv"), "10.0.0.0/8,PL\n");
+        IpRangeDatabase database = new IpRangeDatabase(config(dataset));
+        assertThat(database.findCountry("10.0.0.1")).isEqualTo("PL");
+
+        Files.writeString(dataset, "10.0.0.0/8,DE\n11.0.0.0/8,FR\n");
+        Files.setLastModifiedTime(dataset, FileTime.from(Instant.now().plusSeconds(60)));
+        database.reload();
+
+        assertThat(database.findCountry("10.0.0.1")).isEqualTo("DE");
+        assertThat(database.findCountry("11.0.0.1")).isEqualTo("FR");
+        assertThat(database.size()).isEqualTo(2);
+    }
+
+    @Test
+    void reload_InvalidDataset_ShouldKeepPreviousRanges() throws IOException {
+        Path dataset = Files.writeString(directory.resolve("ranges.csv"), "10.0.0.0/8,PL\n");
+        IpRangeDatabase database = new IpRangeDatabase(config(dataset));
+
+        Files.writeString(dataset, "10.0.0.0/8,PL\nbroken\n");
+        Files.setLastModifiedTime(dataset, FileTime.from(Instant.now().plusSeconds(60)));
+        database.reload();
+
+        assertThat(database.findCountry("10.0.0.1")).isEqualTo("PL");
+    }
+
+    @Test
+    void findCountry_NoDatasetConfigured_ShouldMiss() {
+        IpRangeDatabase database = new IpRangeDatabase(new GeoLocationConfig());
+
+        assertThat(database.findCountry("10.0.0.1")).isNull();
+        assertThat(database.size()).isZero();
+    }
+
+    private GeoLocationConfig config(Path dataset) {
+        GeoLocationConfig config = new GeoLocationConfig();
+        config.getDatabase().setPath(dataset.toString());
+        return config;
+    }
+
+}
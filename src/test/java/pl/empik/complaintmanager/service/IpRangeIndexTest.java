@@ -0,0 +1,71 @@
+package pl.empik.complaintmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IpRangeIndexTest {
+
+    @Test
+    void find_Ipv4Ranges_ShouldMatchInclusiveBoundaries() throws IOException {
+        IpRangeIndex index = load("""
+                start,end,country
+                1.0.0.0,1.0.0.255,AU
+                5.0.0.0,5.255.255.255,pl
+                255.255.255.0,255.255.255.255,ZZ
+                """);
+
+        assertThat(index.find("1.0.0.0")).isEqualTo("AU");
+        assertThat(index.find("1.0.0.255")).isEqualTo("AU");
+        assertThat(index.find("1.0.1.0")).isNull();
+        assertThat(index.find("0.255.255.255")).isNull();
+        assertThat(index.find("5.10.20.30")).isEqualTo("PL");
+        assertThat(index.find("255.255.255.255")).isEqualTo("ZZ");
+        assertThat(index.find("not-an-ip")).isNull();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void find_Ipv6Ranges_ShouldMatchNetworksAndMappedIpv4() throws IOException {
+        IpRangeIndex index = load("""
+                "2001:db8::/32","DE"
+                "10.0.0.0/8","PL"
+                8000::,ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff,US
+                """);
+
+        assertThat(index.find("2001:db8:1::1")).isEqualTo("DE");
+        assertThat(index.find("[2001:db8:ffff:ffff::1]")).isEqualTo("DE");
+        assertThat(index.find("2001:db9::1")).isNull();
+        assertThat(index.find("::ffff:10.1.2.3")).isEqualTo("PL");
+        assertThat(index.find("ffff::1")).isEqualTo("US");
+    }
+
+    @Test
+    void load_OverlappingRanges_ShouldBeRejected() {
+        assertThatThrownBy(() -> load("""
+                10.0.0.0/8,PL
+                10.1.0.0,10.1.0.255,DE
+                """))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void load_MalformedLine_ShouldBeRejected() {
+        assertThatThrownBy(() -> load("""
+                10.0.0.0/8,PL
+                10.1.0.0,PL
+                """))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    private IpRangeIndex load(String csv) throws IOException {
+        return IpRangeIndex.load(new BufferedReader(new StringReader(csv)));
+    }
+
+}
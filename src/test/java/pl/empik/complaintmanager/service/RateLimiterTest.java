@@ -0,0 +1,154 @@
+package pl.empik.complaintmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.empik.complaintmanager.config.RateLimitConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private final AtomicLong time = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitConfig config;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        config = new RateLimitConfig();
+        RateLimitConfig.Endpoint add = new RateLimitConfig.Endpoint();
+        add.setIp(limit(3, Duration.ofMinutes(1)));
+        add.setComplainant(limit(2, Duration.ofMinutes(1)));
+        config.getEndpoints().put("add", add);
+        rateLimiter = new RateLimiter(config, meterRegistry, time::get);
+    }
+
+    @Test
+    void acquire_WithinCapacity_ShouldPass() {
+        assertThatCode(() -> {
+            rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+            rateLimiter.acquire("add", "10.0.0.1", "Jane Doe");
+            rateLimiter.acquire("add", "10.0.0.1", "Jack Doe");
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void acquire_IpOverCapacity_ShouldRejectWithRetryAfter() {
+        rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+        rateLimiter.acquire("add", "10.0.0.1", "Jane Doe");
+        rateLimiter.acquire("add", "10.0.0.1", "Jack Doe");
+
+        assertThatThrownBy(() -> rateLimiter.acquire("add", "10.0.0.1", "Jill Doe"))
+                .isInstanceOfSatisfying(RateLimitExceededException.class, ex -> {
+                    assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(20));
+                    assertThat(ex.getRetryAfterSeconds()).isEqualTo(20);
+                });
+        assertThat(meterRegistry.get(RateLimiter.REJECTED_COUNTER).tag("key", "ip").counter().count()).isEqualTo(1);
+        assertThatCode(() -> rateLimiter.acquire("add", "10.0.0.2", "Jill Doe")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void acquire_AfterRefill_ShouldPassAgain() {
+        rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+        rateLimiter.acquire("add", "10.0.0.1", "Jane Doe");
+        rateLimiter.acquire("add", "10.0.0.1", "Jack Doe");
+
+        time.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        assertThatCode(() -> rateLimiter.acquire("add", "10.0.0.1", "Jill Doe")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> rateLimiter.acquire("add", "10.0.0.1", "Joan Doe"))
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void acquire_ComplainantOverCapacity_ShouldRejectAcrossIpsAndRefundIpToken() {
+        rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+        rateLimiter.acquire("add", "10.0.0.2", "John Doe");
+
+        assertThatThrownBy(() -> rateLimiter.acquire("add", "10.0.0.1", "John Doe"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("complainant");
+
+        assertThatCode(() -> {
+            rateLimiter.acquire("add", "10.0.0.1", "Jane Doe");
+            rateLimiter.acquire("add", "10.0.0.1", "Jack Doe");
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void acquire_DisabledOrUnknownEndpoint_ShouldNotLimit() {
+        config.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+        }
+        config.setEnabled(true);
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire("search", "10.0.0.1", null);
+        }
+
+        assertThat(rateLimiter.trackedKeys()).isZero();
+    }
+
+    @Test
+    void acquire_IdleKeys_ShouldBeEvicted() {
+        rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+        assertThat(rateLimiter.trackedKeys()).isEqualTo(2);
+
+        time.addAndGet(Duration.ofMinutes(1).plusNanos(1).toNanos());
+
+        assertThat(rateLimiter.trackedKeys()).isZero();
+    }
+
+    @Test
+    void acquire_ConcurrentRequests_ShouldNotExceedCapacity() throws Exception {
+        config.getEndpoints().get("add").setIp(limit(1_000, Duration.ofHours(1)));
+        config.getEndpoints().get("add").setComplainant(null);
+        rateLimiter = new RateLimiter(config, meterRegistry, time::get);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = executor.invokeAll(IntStream.range(0, 8)
+                    .mapToObj(thread -> (Callable<Integer>) () -> {
+                        int accepted = 0;
+                        for (int i = 0; i < 500; i++) {
+                            try {
+                                rateLimiter.acquire("add", "10.0.0.1", "John Doe");
+                                accepted++;
+                            } catch (RateLimitExceededException ex) {
+                                assertThat(ex.getRetryAfter()).isPositive();
+                            }
+                        }
+                        return accepted;
+                    })
+                    .toList());
+            int accepted = 0;
+            for (Future<Integer> result : results) {
+                accepted += result.get();
+            }
+
+            assertThat(accepted).isEqualTo(1_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static RateLimitConfig.Limit limit(long capacity, Duration period) {
+        RateLimitConfig.Limit limit = new RateLimitConfig.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+
+}